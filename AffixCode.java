@@ -0,0 +1,132 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Packed int form of the affix type codes used by the Indo stemmer.
+ *
+ * The rule file (see AffixRules) still spells a code the way the stemmer
+ * always has, "ABCD" for a suffix and "EF" for a prefix, written here
+ * with the old "type" in front, but the codes are compiled into ints once
+ * so that stemming never builds or decodes a String.  Each digit of the
+ * written code becomes one 4-bit field:
+ *
+ *   akhiran (suffix):  A kanani   (0 none, 1 i, 2 an, 3 kan, 4 wi, 5 wan)
+ *                      B kumunya  (0 none, 1 ku, 2 mu, 3 nya, 4 -ku, 5 -mu, 6 -nya)
+ *                      C kahlahpun (0 none, 1 kah, 2 lah, 3 pun, 4 tah)
+ *                      D panjang, the length to strip ('N' is 0, '0' is 10)
+ *
+ *   awalan (prefix):   E class   (1 ber, 2 ter, 3 pe, 4 me, 5 di, 6 se,
+ *                                 7 ke, 8 kau, 9 ku)
+ *                      F variant ('N' is NONE; for pe- and me- it is
+ *                                 0 -r, 1 bare, 2 -m, 3 -n, 4 -ny, 5 -ng,
+ *                                 6 -nge, and 7..9 mark stacked prefixes)
+ */
+
+final class AffixCode
+{
+  /** No suffix: "type000N". */
+  static final int AKHIRAN_NONE = 0;
+  /** No prefix: "type0N". */
+  static final int AWALAN_NONE = 0x0F;
+  /** The F field of a prefix code when no prefix applies. */
+  static final int NONE = 0x0F;
+
+  /* kanani */
+  static final int I = 1, AN = 2, KAN = 3, WI = 4, WAN = 5;
+  /* kumunya */
+  static final int KU = 1, MU = 2, NYA = 3, DASH_KU = 4, DASH_MU = 5, DASH_NYA = 6;
+  /* kahlahpun */
+  static final int KAH = 1, LAH = 2, PUN = 3, TAH = 4;
+  /* variant of pe-/me-, as in per, pe, pem, pen, peny, peng, penge */
+  static final int ER = 0, E = 1, EM = 2, EN = 3, ENY = 4, ENG = 5, ENGE = 6;
+
+  private AffixCode() {}
+
+  static int akhiran(int kanani, int kumunya, int kahlahpun, int panjang) {
+    return kanani << 12 | kumunya << 8 | kahlahpun << 4 | panjang;
+  }
+
+  static int kanani(int code)    { return code >>> 12 & 0xF; }
+  static int kumunya(int code)   { return code >>> 8 & 0xF; }
+  static int kahlahpun(int code) { return code >>> 4 & 0xF; }
+  static int panjang(int code)   { return code & 0xF; }
+
+  /* the length of each kanani, kumunya and kahlahpun */
+  private static final int[] PANJANG_KANANI = { 0, 1, 2, 3, 2, 3 };
+  private static final int[] PANJANG_KUMUNYA = { 0, 2, 2, 3, 3, 3, 4 };
+  private static final int[] PANJANG_KAHLAHPUN = { 0, 3, 3, 3, 3 };
+
+  /**
+   * Keeps of a suffix code the kahlahpun, kumunya and kanani, taken from
+   * the end of the word inwards, that fit in its last n chars: of
+   * "ahli-ahlimu", read as -i-mu, only -mu lies past "ahli".
+   */
+  static int luar(int code, int n) {
+    int kh = kahlahpun(code), km = kumunya(code), kn = kanani(code);
+    int p = PANJANG_KAHLAHPUN[kh];
+    if (p > n)
+      return AKHIRAN_NONE;
+    if (p + PANJANG_KUMUNYA[km] > n)
+      return akhiran(0, 0, kh, p);
+    p += PANJANG_KUMUNYA[km];
+    if (p + PANJANG_KANANI[kn] > n)
+      return akhiran(0, km, kh, p);
+    return akhiran(kn, km, kh, p + PANJANG_KANANI[kn]);
+  }
+
+  static int awalan(int kelas, int varian) {
+    return kelas << 4 | varian;
+  }
+
+  static int kelas(int code)  { return code >>> 4 & 0xF; }
+  static int varian(int code) { return code & 0xF; }
+
+  /**
+   * Parses a written code such as "type3607" or "type18".
+   * @throws IllegalArgumentException if s is not a valid code
+   */
+  static int parse(String s) {
+    if (!s.startsWith("type") || (s.length() != 8 && s.length() != 6))
+      throw new IllegalArgumentException("bad affix code: " + s);
+    if (s.length() == 8)
+      return akhiran(digit(s, 4), digit(s, 5), digit(s, 6),
+                     s.charAt(7) == 'N' ? 0 : s.charAt(7) == '0' ? 10 : digit(s, 7));
+    return awalan(digit(s, 4), s.charAt(5) == 'N' ? NONE : digit(s, 5));
+  }
+
+  /** Writes a suffix code back in its "typeABCD" form, for diagnostics. */
+  static String akhiranToString(int code) {
+    int p = panjang(code);
+    return "type" + kanani(code) + kumunya(code) + kahlahpun(code)
+      + (p == 0 ? "N" : p == 10 ? "0" : String.valueOf(p));
+  }
+
+  /** Writes a prefix code back in its "typeEF" form, for diagnostics. */
+  static String awalanToString(int code) {
+    int v = varian(code);
+    return "type" + kelas(code) + (v == NONE ? "N" : String.valueOf(v));
+  }
+
+  private static int digit(String s, int o) {
+    char c = s.charAt(o);
+    if (c < '0' || c > '9')
+      throw new IllegalArgumentException("bad affix code: " + s);
+    return c - '0';
+  }
+}
@@ -0,0 +1,270 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The prefix and suffix rules of the Indo stemmer, compiled from a rule
+ * file into the tries and packed codes used while stemming.
+ *
+ * A rule file has an [akhiran] and an [awalan] section, with one affix per
+ * line followed by its codes, each guarded by a syllable count:
+ *
+ *   [akhiran]
+ *   kan-nyapun  4:3630 3:0637 2:0034
+ *   [awalan]
+ *   berke       3:18 2:10
+ *
+ * reads "for a word of more than 4 syllables ending in kan-nyapun use
+ * suffix code 3630, for more than 3 use 0637, for more than 2 use 0034,
+ * otherwise leave it".  The codes are those of AffixCode without the
+ * "type".  The longest matching affix wins, and of two equal affixes the
+ * first.  '#' starts a comment.  The rules the stemmer ships with are in
+ * indo-affix.rules, which the build copies next to this class; a copy
+ * compiled into the class stands in when the file is not there.
+ *
+ * A set of rules is immutable.  The rules in force are held in an atomic
+ * reference that install() and reload() replace in one step; every Indo
+ * takes the rules in force when it starts on a word and keeps them until
+ * the word is done, so a swap never blocks or disturbs a stem in flight.
+ * A StemCache is not cleared by a swap and should be cleared by the
+ * caller.
+ */
+
+public final class AffixRules
+{
+  /** Name of the built-in rule file, as a class path resource beside this class. */
+  public static final String RESOURCE = "indo-affix.rules";
+
+  private static final AtomicReference<AffixRules> CURRENT =
+    new AtomicReference<AffixRules>(builtIn());
+
+  final AffixTrie akhiranTrie, awalanTrie;
+  final int[][] akhiranKode, akhiranBatas;
+  final int[][] awalanKode, awalanBatas;
+  final int[] awalanPanjang;   /* length of each prefix */
+  /* for Indo's quick check of words no rule can touch: the characters
+     that end some suffix and start some prefix, and the syllable count
+     up to which no suffix or prefix applies at all */
+  final long[] akhiranAkhir, awalanAwal;
+  final int akhiranSuku, awalanSuku;
+  private final String source;
+
+  private AffixRules(Table akhiran, Table awalan, String source) {
+    akhiranTrie = AffixTrie.forSuffixes(akhiran.keys());
+    akhiranKode = akhiran.kode.toArray(new int[0][]);
+    akhiranBatas = akhiran.batas.toArray(new int[0][]);
+    awalanTrie = AffixTrie.forPrefixes(awalan.keys());
+    awalanKode = awalan.kode.toArray(new int[0][]);
+    awalanBatas = awalan.batas.toArray(new int[0][]);
+    awalanPanjang = new int[awalan.affix.size()];
+    for (int z = 0; z < awalanPanjang.length; z++)
+      awalanPanjang[z] = awalan.affix.get(z).length();
+    akhiranAkhir = huruf(akhiran.affix, true);
+    awalanAwal = huruf(awalan.affix, false);
+    akhiranSuku = suku(akhiranBatas);
+    awalanSuku = suku(awalanBatas);
+    this.source = source;
+  }
+
+  /* The set of last (or first) characters of the affixes, as a bitmap. */
+  private static long[] huruf(List<String> affix, boolean akhir) {
+    long[] set = new long[2];
+    for (String a : affix) {
+      if (a.length() == 0)
+        continue;
+      char c = a.charAt(akhir ? a.length()-1 : 0);
+      if (c >> 6 >= set.length) {
+        long[] s = new long[(c >> 6) + 1];
+        System.arraycopy(set, 0, s, 0, set.length);
+        set = s;
+      }
+      set[c >> 6] |= 1L << c;
+    }
+    return set;
+  }
+
+  /* The lowest syllable guard of any rule. */
+  private static int suku(int[][] batas) {
+    int min = Integer.MAX_VALUE;
+    for (int[] b : batas)
+      for (int t : b)
+        min = Math.min(min, t);
+    return min;
+  }
+
+  /** Tells whether c is in a bitmap built by huruf(). */
+  static boolean ada(long[] set, char c) {
+    return c >> 6 < set.length && (set[c >> 6] & 1L << c) != 0;
+  }
+
+  /** Returns the rules in force. */
+  public static AffixRules current() {
+    return CURRENT.get();
+  }
+
+  /** Puts rules in force for every word stemmed from now on, returning the old ones. */
+  public static AffixRules install(AffixRules rules) {
+    if (rules == null)
+      throw new NullPointerException("rules");
+    return CURRENT.getAndSet(rules);
+  }
+
+  /**
+   * Loads file and puts it in force.  If the file cannot be read or
+   * compiled, the rules in force are kept and the error is thrown.
+   */
+  public static AffixRules reload(Path file) throws IOException {
+    AffixRules rules = load(file);
+    install(rules);
+    return rules;
+  }
+
+  /**
+   * Returns the rules the stemmer ships with: indo-affix.rules from the
+   * class path, or the copy compiled into BuiltInRules if the file is
+   * missing or cannot be read, so that this never fails.
+   */
+  public static AffixRules builtIn() {
+    InputStream in = AffixRules.class.getResourceAsStream(RESOURCE);
+    if (in != null) {
+      try {
+        return parse(new InputStreamReader(in, StandardCharsets.UTF_8), RESOURCE);
+      } catch (IOException | IllegalArgumentException e) {
+        /* fall back on the compiled-in copy */
+      }
+    }
+    return embedded();
+  }
+
+  /** Compiles the copy of indo-affix.rules kept in BuiltInRules. */
+  static AffixRules embedded() {
+    StringBuilder text = new StringBuilder();
+    for (String line : BuiltInRules.LINES)
+      text.append(line).append('\n');
+    try {
+      return parse(new StringReader(text.toString()), "built-in " + RESOURCE);
+    } catch (IOException e) {
+      throw new AssertionError(e);  /* a StringReader does not fail */
+    }
+  }
+
+  /** Reads and compiles a UTF-8 rule file. */
+  public static AffixRules load(Path file) throws IOException {
+    return parse(Files.newBufferedReader(file, StandardCharsets.UTF_8), file.toString());
+  }
+
+  /**
+   * Reads and compiles rules, closing in.
+   * @throws IllegalArgumentException if the rules are malformed
+   */
+  public static AffixRules parse(Reader in, String source) throws IOException {
+    Table akhiran = new Table(8), awalan = new Table(6);
+    Table tabel = null;
+    try (BufferedReader r = new BufferedReader(in)) {
+      int nomor = 0;
+      for (String line; (line = r.readLine()) != null; ) {
+        nomor++;
+        int hash = line.indexOf('#');
+        if (hash >= 0)
+          line = line.substring(0, hash);
+        line = line.trim();
+        if (line.length() == 0)
+          continue;
+        if (line.equals("[akhiran]")) {
+          tabel = akhiran;
+        } else if (line.equals("[awalan]")) {
+          tabel = awalan;
+        } else if (tabel == null) {
+          throw new IllegalArgumentException(source + ":" + nomor + ": rule outside [akhiran] or [awalan]");
+        } else {
+          try {
+            tabel.add(line.split("\\s+"));
+          } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(source + ":" + nomor + ": " + e.getMessage(), e);
+          }
+        }
+      }
+    }
+    return new AffixRules(akhiran, awalan, source);
+  }
+
+  /*
+   * kode(kode, batas, suku, kosong) picks the first code whose syllable
+   * bound suku exceeds, or kosong if there is none.
+   */
+  static int kode(int[] kode, int[] batas, int suku, int kosong) {
+    for (int t = 0; t < kode.length; t++)
+      if (suku > batas[t])
+        return kode[t];
+    return kosong;
+  }
+
+  public String toString() {
+    return "AffixRules[" + source + ", " + akhiranKode.length + " akhiran, "
+      + awalanKode.length + " awalan]";
+  }
+
+  /* The rows of one section while it is read. */
+  private static final class Table
+  {
+    final int digits;
+    final List<String> affix = new ArrayList<String>();
+    final List<int[]> kode = new ArrayList<int[]>();
+    final List<int[]> batas = new ArrayList<int[]>();
+
+    Table(int length) {
+      digits = length - 4;
+    }
+
+    void add(String[] t) {
+      int[] k = new int[t.length-1];
+      int[] b = new int[t.length-1];
+      for (int z = 1; z < t.length; z++) {
+        int colon = t[z].indexOf(':');
+        if (colon <= 0 || t[z].length() - colon - 1 != digits)
+          throw new IllegalArgumentException("expected bound:code with a " + digits + "-digit code, got " + t[z]);
+        try {
+          b[z-1] = Integer.parseInt(t[z].substring(0, colon));
+        } catch (NumberFormatException e) {
+          throw new IllegalArgumentException("bad syllable bound in " + t[z]);
+        }
+        k[z-1] = AffixCode.parse("type" + t[z].substring(colon+1));
+      }
+      affix.add(t[0]);
+      kode.add(k);
+      batas.add(b);
+    }
+
+    String[] keys() {
+      return affix.toArray(new String[affix.size()]);
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * A character trie over a fixed table of affixes, built once and then
+ * matched without creating any objects.
+ *
+ * A prefix trie is matched in a single left-to-right scan; a suffix trie
+ * stores every key reversed, so the longest suffix of a word that appears
+ * in the table is found in a single right-to-left scan.
+ * The transition table is dense over the characters that actually occur
+ * in the keys; any other character simply ends the scan.
+ */
+
+final class AffixTrie
+{
+  private final char[] column;   /* char -> column+1 in next, 0 if unused */
+  private final int width;       /* number of distinct key characters */
+  private final int[] next;      /* next[state*width+col], 0 = no transition */
+  private final int[] value;     /* key index accepted in state, or -1 */
+
+  private AffixTrie(String[] keys) {
+    char max = 0;
+    for (int z = 0; z < keys.length; z++)
+      for (int c = 0; c < keys[z].length(); c++)
+        if (keys[z].charAt(c) > max) max = keys[z].charAt(c);
+    column = new char[max+1];
+    int w = 0;
+    int states = 1;
+    for (int z = 0; z < keys.length; z++) {
+      states += keys[z].length();
+      for (int c = 0; c < keys[z].length(); c++)
+        if (column[keys[z].charAt(c)] == 0) column[keys[z].charAt(c)] = (char) ++w;
+    }
+    width = w;
+    next = new int[states*width];
+    value = new int[states];
+    for (int s = 0; s < states; s++)
+      value[s] = -1;
+  }
+
+  /**
+   * Builds a trie that answers longestPrefix() for the given keys.  When
+   * a key occurs more than once the first occurrence wins, as it would in
+   * a chain of starts() tests.
+   */
+  static AffixTrie forPrefixes(String[] keys) {
+    return new AffixTrie(keys).insert(keys, false);
+  }
+
+  /**
+   * Builds a trie that answers longestSuffix() for the given keys.  When
+   * a key occurs more than once the first occurrence wins, as it would in
+   * a chain of ends() tests.
+   */
+  static AffixTrie forSuffixes(String[] keys) {
+    return new AffixTrie(keys).insert(keys, true);
+  }
+
+  private AffixTrie insert(String[] keys, boolean reversed) {
+    int states = 1;
+    for (int z = 0; z < keys.length; z++) {
+      int s = 0;
+      int l = keys[z].length();
+      for (int c = 0; c < l; c++) {
+        char ch = keys[z].charAt(reversed ? l-1-c : c);
+        int o = s*width + column[ch]-1;
+        if (next[o] == 0) next[o] = states++;
+        s = next[o];
+      }
+      if (value[s] < 0) value[s] = z;
+    }
+    return this;
+  }
+
+  /**
+   * Returns the index of the longest key that is a prefix of
+   * s[from..to-1], or -1 if no key matches.
+   */
+  int longestPrefix(char[] s, int from, int to) {
+    int found = -1;
+    int state = 0;
+    for (int o = from; o < to; o++) {
+      char ch = s[o];
+      if (ch >= column.length || column[ch] == 0)
+        break;
+      state = next[state*width + column[ch]-1];
+      if (state == 0)
+        break;
+      if (value[state] >= 0)
+        found = value[state];
+    }
+    return found;
+  }
+
+  /**
+   * Returns the index of the longest key that is a suffix of
+   * s[from..to-1], or -1 if no key matches.
+   */
+  int longestSuffix(char[] s, int from, int to) {
+    int found = -1;
+    int state = 0;
+    for (int o = to-1; o >= from; o--) {
+      char ch = s[o];
+      if (ch >= column.length || column[ch] == 0)
+        break;
+      state = next[state*width + column[ch]-1];
+      if (state == 0)
+        break;
+      if (value[state] >= 0)
+        found = value[state];
+    }
+    return found;
+  }
+}
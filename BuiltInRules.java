@@ -0,0 +1,220 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * A copy of the rules in indo-affix.rules, without the comments, that
+ * AffixRules.builtIn() falls back on when the rule file is not on the
+ * class path, as when the classes are compiled without the build that
+ * copies it there.  AffixRulesTest checks that the two agree; change
+ * both together.
+ */
+
+final class BuiltInRules
+{
+  private BuiltInRules() {}
+
+  static final String[] LINES = {
+    "[akhiran]",
+    "wan         2:5003",
+    "wi          2:4002",
+    "kan-nyapun  4:3630 3:0637 2:0034",
+    "kan-nyalah  4:3620 3:0627 2:0024",
+    "kan-nyakah  4:3610 3:0617 2:0014",
+    "kan-nya     3:3607 2:0604",
+    "kan-mupun   4:3539 3:0536 2:0033",
+    "kan-mulah   4:3529 3:0526 2:0023",
+    "kan-mukah   4:3519 3:0516 2:0013",
+    "kan-mu      3:3506 2:0503",
+    "kan-kupun   4:3439 3:0436 2:0033",
+    "kan-kulah   4:3429 3:0426 2:0023",
+    "kan-kukah   4:3419 3:0416 2:0013",
+    "kan-ku      3:3406 2:0403",
+    "kannyapun   4:3339 3:0336 2:0033",
+    "kannyalah   4:3329 3:0326 2:0023",
+    "kannyakah   4:3319 3:0316 2:0013",
+    "kannya      3:3306 2:0303",
+    "kanmupun    4:3238 3:0235 2:0033",
+    "kanmulah    4:3228 3:0225 2:0023",
+    "kanmukah    4:3218 3:0215 2:0013",
+    "kanmu       3:3205 2:0202",
+    "kankupun    4:3138 3:0135 2:0033",
+    "kankulah    4:3128 3:0125 2:0023",
+    "kankukah    4:3118 3:0115 2:0013",
+    "kanku       3:3105 2:0102",
+    "kanpun      3:3036 2:0033",
+    "kanlah      3:3026 2:0023",
+    "kankah      3:3016 2:0013",
+    "kan         2:3003",
+    "an-nyapun   4:2639 3:0637 2:0034",
+    "an-nyalah   4:2629 3:0627 2:0024",
+    "an-nyakah   4:2619 3:0617 2:0014",
+    "an-nya      3:2606 2:0604",
+    "an-mupun    4:2538 3:0536 2:0033",
+    "an-mulah    4:2528 3:0526 2:0023",
+    "an-mukah    4:2518 3:0516 2:0013",
+    "an-mu       3:2505 2:0503",
+    "an-kupun    4:2438 3:0436 2:0033",
+    "an-kulah    4:2428 3:0426 2:0023",
+    "an-kukah    4:2418 3:0416 2:0013",
+    "an-ku       3:2405 2:0403",
+    "annyapun    4:2338 3:0336 2:0033",
+    "annyalah    4:2328 3:0326 2:0023",
+    "annyakah    4:2318 3:0316 2:0013",
+    "annya       3:2305 2:0303",
+    "anmupun     4:2237 3:0235 2:0033",
+    "anmulah     4:2227 3:0225 2:0023",
+    "anmukah     4:2217 3:0215 2:0013",
+    "anmu        3:2204 2:0202",
+    "ankupun     4:2137 3:0135 2:0033",
+    "ankulah     4:2127 3:0125 2:0023",
+    "ankukah     4:2117 3:0115 2:0013",
+    "anku        3:2104 2:0102",
+    "anpun       3:2035 2:0033",
+    "anlah       3:2025 2:0023",
+    "ankah       3:2015 2:0013",
+    "an          2:2002",
+    "ai-nyapun   3:0637 2:0034",
+    "i-nyapun    4:1638 3:0637 2:0034",
+    "ai-nyalah   3:0627 2:0024",
+    "i-nyalah    4:1628 3:0627 2:0024",
+    "ai-nyakah   3:0617 2:0014",
+    "i-nyakah    4:1618 3:0617 2:0014",
+    "ai-nya      2:0604",
+    "i-nya       3:1605 2:0604",
+    "ai-mupun    3:0536 2:0033",
+    "i-mupun     4:1537 3:0536 2:0033",
+    "ai-mulah    3:0526 2:0023",
+    "i-mulah     4:1527 3:0526 2:0023",
+    "ai-mukah    3:0516 2:0013",
+    "i-mukah     4:1517 3:0516 2:0013",
+    "ai-mu       2:0503",
+    "i-mu        3:1504 2:0503",
+    "ai-kupun    3:0436 2:0033",
+    "i-kupun     4:1437 3:0436 2:0033",
+    "ai-kulah    3:0426 2:0023",
+    "i-kulah     4:1427 3:0426 2:0023",
+    "ai-kukah    3:0416 2:0013",
+    "i-kukah     4:1417 3:0416 2:0013",
+    "ai-ku       2:0403",
+    "i-ku        3:1404 2:0403",
+    "ainyapun    3:0336 2:0033",
+    "inyapun     4:1337 3:0336 2:0033",
+    "ainyalah    3:0326 2:0023",
+    "inyalah     4:1327 3:0326 2:0023",
+    "ainyakah    3:0316 2:0013",
+    "inyakah     4:1317 3:0316 2:0013",
+    "ainya       2:0303",
+    "inya        3:1304 2:0303",
+    "aimupun     3:0235 2:0033",
+    "imupun      4:1236 3:0235 2:0033",
+    "aimulah     3:0225 2:0023",
+    "imulah      4:1226 3:0225 2:0023",
+    "aimukah     3:0215 2:0013",
+    "imukah      4:1216 3:0215 2:0013",
+    "aimu        2:0202",
+    "imu         3:1203 2:0202",
+    "aikupun     3:0135 2:0033",
+    "ikupun      4:1136 3:0135 2:0033",
+    "aikulah     3:0125 2:0023",
+    "ikulah      4:1126 3:0125 2:0023",
+    "aiku        2:0102",
+    "iku         3:1103 2:0102",
+    "aipun       2:0033",
+    "ipun        3:1034 2:0033",
+    "ailah       2:0023",
+    "ilah        3:1024 2:0023",
+    "aikah       2:0013",
+    "ikah        3:1014 2:0013",
+    "ai",
+    "i           2:1001",
+    "-nyapun     3:0637 2:0033",
+    "-nyalah     3:0627 2:0023",
+    "-nyakah     3:0617 2:0013",
+    "-nya        2:0604",
+    "-mupun      3:0536 2:0033",
+    "-mulah      3:0526 2:0023",
+    "-mukah      3:0516 2:0013",
+    "-mu         2:0503",
+    "-kupun      3:0436 2:0033",
+    "-kulah      3:0426 2:0023",
+    "-kukah      3:0416 2:0013",
+    "-ku         2:0403",
+    "nyapun      3:0336 2:0033",
+    "nyalah      3:0326 2:0023",
+    "nyakah      3:0316 2:0013",
+    "nya         2:0303",
+    "mupun       3:0235 2:0033",
+    "mulah       3:0225 2:0023",
+    "mukah       3:0215 2:0013",
+    "mu          2:0202",
+    "kupun       3:0135 2:0043",
+    "kulah       3:0125 2:0033",
+    "kukah       3:0115 2:0023",
+    "ku          2:0102",
+    "tah         2:0043",
+    "pun         2:0033",
+    "lah         2:0023",
+    "kah         2:0013",
+    "[awalan]",
+    "berke       3:18 2:10",
+    "berse       3:19 2:10",
+    "ber         2:10",
+    "ter         2:20",
+    "penter      3:39 2:33",
+    "pember      3:37 2:32",
+    "penge       3:36 2:35",
+    "peng        2:35",
+    "peny        2:34",
+    "pen         2:33",
+    "pem         2:32",
+    "per         2:30",
+    "pe          2:31",
+    "menter      3:49 2:43",
+    "memper      3:48 2:42",
+    "member      3:47 2:42",
+    "menge       3:46 2:45",
+    "meng        2:45",
+    "meny        2:44",
+    "men         2:43",
+    "mem         2:42",
+    "me          2:41",
+    "diter       3:59 2:51",
+    "diper       3:58 2:51",
+    "diber       3:57 2:51",
+    "dike        3:55 2:51",
+    "di          2:51",
+    "seter       3:69 2:43",
+    "seper       3:68 2:42",
+    "seber       3:67 2:42",
+    "se          2:61",
+    "keter       3:79 2:43",
+    "keper       3:78 2:42",
+    "keber       3:77 2:42",
+    "ke-         2:70",
+    "ke          2:71",
+    "kauter      3:89 2:80",
+    "kauper      3:88 2:80",
+    "kauber      3:87 2:80",
+    "kau         2:80",
+    "kuter       3:99 2:91",
+    "kuper       3:98 2:91",
+    "kuber       3:97 2:91",
+    "ku          2:91",
+  };
+}
@@ -0,0 +1,253 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Stems whole corpora on several cores while keeping the output in input
+ * order.
+ *
+ * The input is read on the calling thread in chunks of about
+ * getChunkSize() bytes, each cut just after an ASCII whitespace byte.  A
+ * UTF-8 sequence never contains such a byte and a word never spans one,
+ * so every chunk can be decoded and stemmed on its own.  A run of text
+ * with no whitespace grows the chunk up to four times getChunkSize(),
+ * and is then cut after some other ASCII byte that cannot be part of a
+ * word, or failing that at a character boundary, which may split a word
+ * of that monstrous length in two.  The chunks are
+ * handed to an executor, by default the common ForkJoinPool, where each
+ * task borrows an engine from a private IndoStemmerPool; an executor of
+ * virtual threads works just as well.  The results are written in the
+ * order the chunks were read, and at most two chunks per core are in
+ * flight, so memory use does not grow with the input.
+ */
+
+public final class CorpusStemmer
+{
+  private final ExecutorService executor;
+  private final StemmingWriter.Mode mode;
+  private final IndoStemmerPool engines;
+  private final int window;
+  private int chunkSize = 1 << 20;
+  private StemCache cache;
+  private RootLexicon lexicon;
+  private StemTable table;
+  private StemMetrics metrics;
+
+  /** Creates a corpus stemmer running on the common ForkJoinPool. */
+  public CorpusStemmer(StemmingWriter.Mode mode) {
+    this(ForkJoinPool.commonPool(), mode);
+  }
+
+  /**
+   * Creates a corpus stemmer running its chunks on executor, which it
+   * uses but does not shut down.
+   */
+  public CorpusStemmer(ExecutorService executor, StemmingWriter.Mode mode) {
+    int cores = Runtime.getRuntime().availableProcessors();
+    this.executor = executor;
+    this.mode = mode;
+    engines = new IndoStemmerPool(cores);
+    window = 2 * cores;
+  }
+
+  public int getChunkSize() { return chunkSize; }
+
+  /** Sets the number of bytes to read before cutting a chunk. */
+  public void setChunkSize(int bytes) {
+    if (bytes < 1)
+      throw new IllegalArgumentException("chunk size must be positive: " + bytes);
+    chunkSize = bytes;
+  }
+
+  /** Shares a StemCache between all workers; null for none. */
+  public void setCache(StemCache c) { cache = c; }
+
+  /** Shares a RootLexicon between all workers; null for none. */
+  public void setLexicon(RootLexicon l) { lexicon = l; }
+
+  /** Shares a StemTable between all workers; null for none. */
+  public void setStemTable(StemTable t) { table = t; }
+
+  /** Shares StemMetrics between all workers; null for none. */
+  public void setMetrics(StemMetrics m) { metrics = m; }
+
+  /**
+   * Stems the files, in order, to out.  A word never runs on into the
+   * next file.  Chunks of the next files are read and stemmed while the
+   * earlier ones are still being written, so a corpus of many small
+   * files keeps every core busy just as one large file does.
+   */
+  public void stem(Iterable<Path> files, Writer out) throws IOException {
+    ArrayDeque<Future<CharArrayWriter>> pending = new ArrayDeque<Future<CharArrayWriter>>();
+    byte[] buf = new byte[chunkSize];
+    try {
+      for (Path f : files)
+        try (InputStream in = Files.newInputStream(f)) {
+          buf = submit(in, buf, out, pending);
+        }
+      while (!pending.isEmpty())
+        pending.removeFirst().get().writeTo(out);
+    } catch (InterruptedException | ExecutionException e) {
+      throw failure(e);
+    } finally {
+      for (Future<CharArrayWriter> f : pending)
+        f.cancel(false);
+    }
+  }
+
+  /** Stems all of the UTF-8 text in to out.  Neither stream is closed. */
+  public void stem(InputStream in, Writer out) throws IOException {
+    ArrayDeque<Future<CharArrayWriter>> pending = new ArrayDeque<Future<CharArrayWriter>>();
+    try {
+      submit(in, new byte[chunkSize], out, pending);
+      while (!pending.isEmpty())
+        pending.removeFirst().get().writeTo(out);
+    } catch (InterruptedException | ExecutionException e) {
+      throw failure(e);
+    } finally {
+      for (Future<CharArrayWriter> f : pending)
+        f.cancel(false);
+    }
+  }
+
+  /*
+   * Reads in to the end, cutting it into chunks that are queued on
+   * pending behind any chunks already there.  Whenever the window is
+   * full the oldest chunk is waited for and written to out.  buf is the
+   * read buffer, empty on entry; it is returned, grown if a run without
+   * whitespace needed more room, and empty again, for the next input.
+   */
+  private byte[] submit(InputStream in, byte[] buf, Writer out,
+                        ArrayDeque<Future<CharArrayWriter>> pending)
+      throws IOException, InterruptedException, ExecutionException {
+    int have = 0;
+    boolean eof = false;
+    int limit = (int) Math.min(Integer.MAX_VALUE - 8, 4L * chunkSize);
+    while (!eof) {
+      while (have < buf.length) {
+        int n = in.read(buf, have, buf.length - have);
+        if (n < 0) {
+          eof = true;
+          break;
+        }
+        have += n;
+      }
+      int cut = have;
+      if (!eof) {
+        while (cut > 0 && !isSpace(buf[cut-1]))
+          cut--;
+        if (cut == 0 && buf.length < limit) {  /* no whitespace at all: read on */
+          byte[] b = new byte[(int) Math.min(limit, 2L * buf.length)];
+          System.arraycopy(buf, 0, b, 0, have);
+          buf = b;
+          continue;
+        }
+        if (cut == 0)
+          cut = cutAnywhere(buf, have);
+      }
+      if (cut > 0) {
+        final byte[] chunk = new byte[cut];
+        System.arraycopy(buf, 0, chunk, 0, cut);
+        System.arraycopy(buf, cut, buf, 0, have - cut);
+        have -= cut;
+        if (pending.size() >= window)
+          pending.removeFirst().get().writeTo(out);
+        pending.addLast(executor.submit(new Callable<CharArrayWriter>() {
+          public CharArrayWriter call() throws IOException {
+            return stemChunk(chunk);
+          }
+        }));
+      }
+    }
+    return buf;
+  }
+
+  /* Turns a failed wait for a chunk into the exception to throw. */
+  private static IOException failure(Exception e) {
+    if (e instanceof InterruptedException) {
+      Thread.currentThread().interrupt();
+      return new InterruptedIOException("interrupted while stemming");
+    }
+    Throwable t = e.getCause();
+    if (t instanceof IOException) return (IOException) t;
+    if (t instanceof RuntimeException) throw (RuntimeException) t;
+    if (t instanceof Error) throw (Error) t;
+    return new IOException(t);
+  }
+
+  private CharArrayWriter stemChunk(byte[] chunk) throws IOException {
+    CharsetDecoder dec = StandardCharsets.UTF_8.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    CharBuffer text = dec.decode(ByteBuffer.wrap(chunk));
+    CharArrayWriter result = new CharArrayWriter(text.remaining() + 16);
+    Indo s = engines.borrow();
+    try {
+      s.setCache(cache);
+      s.setLexicon(lexicon);
+      s.setStemTable(table);
+      s.setMetrics(metrics);
+      StemmingWriter w = new StemmingWriter(result, s, mode);
+      w.write(text.array(), text.arrayOffset() + text.position(), text.remaining());
+      w.endWord();
+    } finally {
+      engines.release(s);
+    }
+    return result;
+  }
+
+  /*
+   * Where to cut buf[0..have) when it holds no whitespace: after the last
+   * ASCII byte that is not a word char, else before the last byte that
+   * starts a character.
+   */
+  private static int cutAnywhere(byte[] buf, int have) {
+    for (int cut = have; cut > 0; cut--) {
+      byte c = buf[cut-1];
+      if (c >= 0 && !StemmingWriter.isWordChar((char) c))
+        return cut;
+    }
+    for (int cut = have-1; cut > 0; cut--)
+      if ((buf[cut] & 0xC0) != 0x80)
+        return cut;
+    return have;
+  }
+
+  private static boolean isSpace(byte c) {
+    return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f';
+  }
+}
@@ -0,0 +1,207 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Records the stems of a word list and checks later versions of the
+ * stemmer against them, so that a change meant only to make stemming
+ * faster can be shown not to change a single stem.
+ *
+ * Usage: GoldenStems record words.txt golden.tsv
+ *        GoldenStems verify golden.tsv [-c size] [-l roots.lex] [-s stems.tbl] [-j threads]
+ *
+ * record stems every word of words.txt (UTF-8, whitespace separated) and
+ * writes one "word TAB stem" line per distinct word.  verify stems the
+ * words again, optionally through a StemCache, a RootLexicon or a
+ * StemTable, or on several threads, and lists the words whose stem changed, grouped by the
+ * affix codes the stemmer finds in them (see AffixCode), so that a
+ * regression points at the rule behind it.  It exits with status 1 if
+ * any stem changed.
+ *
+ * The golden list kept with the tests, src/test/resources/.../
+ * golden-stems.tsv, was recorded with the stemmer as it stood before any
+ * of the speed work, from golden-words.txt beside it: a curated set of
+ * roots, affixed words and reduplications followed by every eighth word
+ * of a generated list of affix combinations.  GoldenStemsTest verifies
+ * it on every build.
+ */
+
+public final class GoldenStems
+{
+  private static final int EXAMPLES = 5;
+
+  private GoldenStems() {}
+
+  public static void main(String[] args) throws Exception {
+    if (args.length == 3 && args[0].equals("record")) {
+      record(args[1], args[2]);
+      return;
+    }
+    if (args.length >= 2 && args[0].equals("verify")) {
+      int threads = 1;
+      StemCache cache = null;
+      RootLexicon lexicon = null;
+      StemTable table = null;
+      for (int a = 2; a < args.length; a++) {
+        if (args[a].equals("-c") && a+1 < args.length)
+          cache = new StemCache(count(args[++a], StemCache.MAX_ENTRIES), StemCache.Policy.TINY_LFU);
+        else if (args[a].equals("-l") && a+1 < args.length)
+          lexicon = RootLexicon.open(Paths.get(args[++a]));
+        else if (args[a].equals("-s") && a+1 < args.length)
+          table = StemTable.open(Paths.get(args[++a]));
+        else if (args[a].equals("-j") && a+1 < args.length)
+          threads = count(args[++a], 0x7FFF);
+        else
+          usage();
+      }
+      System.exit(verify(args[1], cache, lexicon, table, threads) ? 0 : 1);
+    }
+    usage();
+  }
+
+  private static void usage() {
+    System.err.println("Usage: GoldenStems record words.txt golden.tsv");
+    System.err.println("       GoldenStems verify golden.tsv [-c size] [-l roots.lex] [-s stems.tbl] [-j threads]");
+    System.exit(2);
+  }
+
+  /* Parses the value of -c or -j, which must be a number from 1 to max. */
+  private static int count(String s, int max) {
+    try {
+      int n = Integer.parseInt(s);
+      if (n > 0 && n <= max)
+        return n;
+    } catch (NumberFormatException e) {
+      /* fall through to the usage message */
+    }
+    usage();
+    return 0;
+  }
+
+  private static void record(String words, String golden) throws IOException {
+    Indo s = new Indo();
+    java.util.Set<String> seen = new java.util.HashSet<String>();
+    long n = 0;
+    try (BufferedReader in = Files.newBufferedReader(Paths.get(words), StandardCharsets.UTF_8);
+         BufferedWriter out = Files.newBufferedWriter(Paths.get(golden), StandardCharsets.UTF_8)) {
+      for (String line; (line = in.readLine()) != null; )
+        for (String w : line.trim().split("\\s+")) {
+          if (w.length() == 0 || w.indexOf('\t') >= 0 || !seen.add(w))
+            continue;
+          out.write(w);
+          out.write('\t');
+          out.write(s.stem(w));
+          out.write('\n');
+          n++;
+        }
+    }
+    System.out.println(n + " stems recorded in " + golden);
+  }
+
+  static boolean verify(String golden, StemCache cache, RootLexicon lexicon,
+                                StemTable table, int threads)
+      throws Exception {
+    final List<char[]> words = new ArrayList<char[]>();
+    final List<String> stems = new ArrayList<String>();
+    try (BufferedReader in = Files.newBufferedReader(Paths.get(golden), StandardCharsets.UTF_8)) {
+      for (String line; (line = in.readLine()) != null; ) {
+        int tab = line.indexOf('\t');
+        if (tab < 0)
+          continue;
+        words.add(line.substring(0, tab).toCharArray());
+        stems.add(line.substring(tab+1));
+      }
+    }
+
+    long t0 = System.nanoTime();
+    final String[] got = new String[words.size()];
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> parts = new ArrayList<Future<?>>();
+      int step = (words.size() + threads - 1) / threads;
+      for (int from = 0; from < words.size(); from += step) {
+        final int lo = from, hi = Math.min(words.size(), from + step);
+        final StemCache c = cache;
+        final RootLexicon l = lexicon;
+        final StemTable st = table;
+        parts.add(pool.submit(new Runnable() {
+          public void run() {
+            Indo s = new Indo();
+            s.setCache(c);
+            s.setLexicon(l);
+            s.setStemTable(st);
+            for (int z = lo; z < hi; z++) {
+              char[] w = words.get(z);
+              got[z] = s.stem(w, 0, w.length)
+                ? new String(s.getResultBuffer(), s.getResultOffset(), s.getResultLength())
+                : new String(w);
+            }
+          }
+        }));
+      }
+      for (Future<?> f : parts)
+        f.get();
+    } finally {
+      pool.shutdown();
+    }
+    long t1 = System.nanoTime();
+
+    Map<String, List<String>> byCode = new TreeMap<String, List<String>>();
+    int bad = 0;
+    Indo probe = new Indo();
+    for (int z = 0; z < got.length; z++) {
+      if (got[z].equals(stems.get(z)))
+        continue;
+      bad++;
+      char[] w = words.get(z);
+      probe.load(w, 0, w.length);
+      String code = AffixCode.akhiranToString(probe.berakhiran());
+      probe.load(w, 0, w.length);
+      code = AffixCode.awalanToString(probe.berawalan()) + " " + code;
+      List<String> list = byCode.get(code);
+      if (list == null)
+        byCode.put(code, list = new ArrayList<String>());
+      list.add(new String(w) + ": " + stems.get(z) + " -> " + got[z]);
+    }
+
+    System.out.printf("%d words in %.1f ms, %d mismatches%n", got.length, (t1-t0) / 1e6, bad);
+    if (cache != null)
+      System.out.println(cache);
+    for (Map.Entry<String, List<String>> e : byCode.entrySet()) {
+      List<String> list = e.getValue();
+      System.out.println(e.getKey() + "  " + list.size());
+      for (int z = 0; z < Math.min(EXAMPLES, list.size()); z++)
+        System.out.println("    " + list.get(z));
+    }
+    return bad == 0;
+  }
+}
@@ -0,0 +1,57 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.Reader;
+
+import org.apache.lucene.analysis.core.LowerCaseFilter;
+import org.apache.lucene.analysis.util.CharTokenizer;
+import org.apache.lucene.util.Version;
+
+/**
+ * An Analyzer for Indonesian text built on IndoStemFilter.
+ *
+ * Tokens are runs of letters and hyphens, the same words the Indo
+ * stemmer has always been fed, so reduplications such as "ahli-ahli"
+ * stay whole.  They are lower cased and then stemmed.
+ */
+public final class IndoAnalyzer extends Analyzer {
+  public IndoAnalyzer() {
+  }
+
+  /**
+   * Kept for callers of the Lucene 4.0 style constructor; matchVersion is
+   * handed to setVersion().
+   */
+  public IndoAnalyzer(Version matchVersion) {
+    setVersion(matchVersion);
+  }
+
+  @Override
+  protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
+    final Tokenizer source = new CharTokenizer(reader) {
+      @Override
+      protected boolean isTokenChar(int c) {
+        return Character.isLetter(c) || c == '-';
+      }
+    };
+    TokenStream result = new LowerCaseFilter(source);
+    result = new IndoStemFilter(result);
+    return new TokenStreamComponents(source, result);
+  }
+}
@@ -0,0 +1,227 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Command line stemmer for batch use in shell pipelines.
+ *
+ * Usage: IndoStem [-t] [-j threads | -m] [-o output] [-c size] [-l roots.lex] [-s stems.tbl] [-v] [file ...]
+ *
+ *   -t          write one stem per line instead of the stemmed text
+ *   -j threads  stem on this many threads (see CorpusStemmer)
+ *   -m          memory-map the files instead of reading them (see
+ *               MappedStemmer), on one thread; at least one file must be
+ *               named, and standard input cannot be mapped
+ *   -o output   write to output, replacing it, instead of standard out
+ *   -c size     cache up to size stems (see StemCache)
+ *   -l file     consult the root lexicon in file (see RootLexicon)
+ *   -s file     look words up in the stem table in file first (see StemTable)
+ *   -v          print StemMetrics to standard error when done
+ *
+ * The files, or standard input if none or "-" is given, are read as
+ * UTF-8 through large buffers; malformed bytes become U+FFFD.  Output is
+ * UTF-8.  See StemmingWriter for what counts as a word.
+ */
+
+public final class IndoStem
+{
+  private static final int BUFFER = 1 << 16;
+
+  private IndoStem() {}
+
+  public static void main(String[] args) throws IOException {
+    StemmingWriter.Mode mode = StemmingWriter.Mode.PRESERVE;
+    String output = null;
+    Indo stemmer = new Indo();
+    int threads = 0;  /* 0 when -j is not given */
+    boolean mapped = false;
+    int a = 0;
+    for (; a < args.length && args[a].startsWith("-") && args[a].length() > 1; a++) {
+      String opt = args[a];
+      if (opt.equals("--")) {
+        a++;
+        break;
+      } else if (opt.equals("-t")) {
+        mode = StemmingWriter.Mode.TOKENS;
+      } else if (opt.equals("-j") && a+1 < args.length) {
+        threads = count(args[++a], 0x7FFF);
+      } else if (opt.equals("-m")) {
+        mapped = true;
+      } else if (opt.equals("-o") && a+1 < args.length) {
+        output = args[++a];
+      } else if (opt.equals("-c") && a+1 < args.length) {
+        stemmer.setCache(new StemCache(count(args[++a], StemCache.MAX_ENTRIES), StemCache.Policy.TINY_LFU));
+      } else if (opt.equals("-l") && a+1 < args.length) {
+        stemmer.setLexicon(RootLexicon.open(Paths.get(args[++a])));
+      } else if (opt.equals("-v")) {
+        stemmer.setMetrics(new StemMetrics(true));
+      } else if (opt.equals("-s") && a+1 < args.length) {
+        stemmer.setStemTable(StemTable.open(Paths.get(args[++a])));
+      } else {
+        usage();
+      }
+    }
+
+    if (mapped) {
+      /* mapping needs files, and runs on one thread */
+      if (threads != 0 || a == args.length)
+        usage();
+      for (int f = a; f < args.length; f++)
+        if (args[f].equals("-"))
+          usage();
+    }
+
+    try {
+      if (mapped) {
+        stemMapped(args, a, output, mode, stemmer);
+      } else {
+        OutputStream os = output == null ? System.out : Files.newOutputStream(Paths.get(output));
+        if (threads > 1)
+          stemParallel(args, a, threads, mode, stemmer, os);
+        else
+          stemStream(args, a, mode, stemmer, os);
+      }
+    } finally {
+      if (stemmer.getMetrics() != null)
+        report(stemmer.getMetrics());
+    }
+  }
+
+  /* Prints m to standard error for -v; StemServer uses it too. */
+  static void report(StemMetrics m) {
+    System.err.println(m);
+    System.err.println("cache hit rate " + m.getCacheHitRate()
+      + ", stem time median " + m.getLatencyMedianNanos()
+      + " ns, 99% " + m.getLatency99Nanos() + " ns");
+    System.err.println("reduplications " + m.getReduplications());
+    System.err.println("prefix codes " + m.getPrefixCodes());
+    System.err.println("suffix codes " + m.getSuffixCodes());
+  }
+
+  private static void usage() {
+    System.err.println("Usage: IndoStem [-t] [-j threads | -m] [-o output] [-c size] [-l roots.lex] [-s stems.tbl] [-v] [file ...]");
+    System.exit(2);
+  }
+
+  /*
+   * Parses the value of -j or -c, which must be a number from 1 to max:
+   * the most threads a ForkJoinPool takes, or StemCache.MAX_ENTRIES.
+   */
+  private static int count(String s, int max) {
+    try {
+      int n = Integer.parseInt(s);
+      if (n > 0 && n <= max)
+        return n;
+    } catch (NumberFormatException e) {
+      /* fall through to the usage message */
+    }
+    usage();
+    return 0;
+  }
+
+  private static void stemStream(String[] args, int a, StemmingWriter.Mode mode,
+                                 Indo stemmer, OutputStream os) throws IOException {
+    StemmingWriter out = new StemmingWriter(
+      new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), BUFFER), stemmer, mode);
+    char[] buf = new char[BUFFER];
+    try {
+      if (a == args.length)
+        copy(System.in, buf, out);
+      for (; a < args.length; a++) {
+        if (args[a].equals("-")) {
+          copy(System.in, buf, out);
+        } else {
+          try (InputStream in = Files.newInputStream(Paths.get(args[a]))) {
+            copy(in, buf, out);
+          }
+        }
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  private static void stemMapped(String[] args, int a, String output, StemmingWriter.Mode mode,
+                                 Indo stemmer) throws IOException {
+    MappedStemmer mapper = new MappedStemmer(stemmer, mode);
+    WritableByteChannel out = output == null ? Channels.newChannel(System.out)
+      : FileChannel.open(Paths.get(output), StandardOpenOption.CREATE,
+                         StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    try {
+      for (; a < args.length; a++)
+        mapper.stem(Paths.get(args[a]), out);
+    } finally {
+      out.close();
+    }
+  }
+
+  private static void stemParallel(String[] args, int a, int threads, StemmingWriter.Mode mode,
+                                   Indo stemmer, OutputStream os) throws IOException {
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    CorpusStemmer corpus = new CorpusStemmer(pool, mode);
+    corpus.setCache(stemmer.getCache());
+    corpus.setLexicon(stemmer.getLexicon());
+    corpus.setStemTable(stemmer.getStemTable());
+    corpus.setMetrics(stemmer.getMetrics());
+    Writer out = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), BUFFER);
+    try {
+      if (a == args.length)
+        corpus.stem(System.in, out);
+      for (; a < args.length; a++) {
+        if (args[a].equals("-")) {
+          corpus.stem(System.in, out);
+        } else {
+          try (InputStream in = Files.newInputStream(Paths.get(args[a]))) {
+            corpus.stem(in, out);
+          }
+        }
+      }
+    } finally {
+      pool.shutdown();
+      out.close();
+    }
+  }
+
+  /* Stems all of in into out; a word never runs on into the next input. */
+  private static void copy(InputStream in, char[] buf, StemmingWriter out) throws IOException {
+    Reader r = new InputStreamReader(in, StandardCharsets.UTF_8.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE));
+    for (int n; (n = r.read(buf)) >= 0; )
+      out.write(buf, 0, n);
+    out.endWord();
+  }
+}
@@ -0,0 +1,52 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+
+/**
+ * Transforms the token stream as per the Indonesian stemmer in Indo.
+ *
+ * The term is stemmed straight from its buffer and the result copied
+ * back, so no String is created per token.  To use it, pass a lower
+ * cased token stream whose tokens keep their hyphens, as IndoAnalyzer
+ * does, so that reduplications such as "berabad-abad" reach the stemmer
+ * as one word.  Tokens marked as keywords are left alone.
+ */
+public final class IndoStemFilter extends TokenFilter {
+  private final Indo stemmer = new Indo();
+  private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+  private final KeywordAttribute keywordAttr = addAttribute(KeywordAttribute.class);
+
+  public IndoStemFilter(TokenStream in) {
+    super(in);
+  }
+
+  @Override
+  public final boolean incrementToken() throws IOException {
+    if (!input.incrementToken())
+      return false;
+
+    if ((!keywordAttr.isKeyword()) && stemmer.stem(termAtt.buffer(), 0, termAtt.length()))
+      termAtt.copyBuffer(stemmer.getResultBuffer(), stemmer.getResultOffset(), stemmer.getResultLength());
+    return true;
+  }
+}
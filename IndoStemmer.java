@@ -43,6 +43,7 @@ package org.apache.lucene.analysis;
  
  */
 import java.io.*;
+import java.nio.CharBuffer;
 
 /**
  *
@@ -51,6 +52,10 @@ import java.io.*;
  * The Stemmer class transforms a word into its root form.  The input
  * word can be provided a character at time (by calling add()), or at once
  * by calling one of the various stem(something) methods.
+ *
+ * An Indo keeps the word being stemmed in its own fields, so one instance
+ * must not be used by two threads at once.  It shares no mutable state
+ * with other instances; IndoStemmerPool gives each thread its own.
  */
 
 class Indo
@@ -67,7 +72,11 @@ class Indo
     sukukata = 0,
     panjang = 0, //panjang akhiran
     panjang0 = 0; //panjang awalan
-  private String kanani, kumunya, kahlahpun, menge, penge;
+  private int kanani, kumunya, kahlahpun, /* kelas akhiran, lihat AffixCode */
+    menge, penge, /* varian me-/pe-, AffixCode.NONE kalau tidak ada */
+    jenisUlang,   /* cara kata ulang diselesaikan, lihat Reduplikasi; 0 kalau tidak ada */
+    awalanUlang, akhiranUlang, /* imbuhan yang ikut terbuang bersama separuh kata ulang */
+    ujung;        /* akhir kata sebelum akhirannya dipotong, untuk analyze() */
   private boolean dirty = false,
                   dash = false,
                   falsedash = false,
@@ -78,7 +87,18 @@ class Indo
                   pen = false;
   private static final int INC = 50; /* unit of size whereby b is increased */
   private static final int EXTRA = 1;
-  private static Indo stringtemp;
+  private StemDiagnostics diagnostics = StemDiagnostics.NONE;
+  private StemCache cache;
+  /* profil suku kata: jmlVokal[o] = jumlah vokal di b[0..o), jmlRuas[o] =
+     jumlah deret vokal (seperti m()) yang mulai di b[k0..o).  Dihitung
+     sekali per kata, lalu dibuang setiap kali b berubah. */
+  private int[] jmlVokal = new int[INC+1], jmlRuas = new int[INC+1];
+  private boolean berprofil = false;
+  private RootLexicon lexicon;
+  private StemTable table;
+  private StemMetrics metrics;
+  /* aturan imbuhan untuk kata yang sedang di-stem, lihat AffixRules */
+  private AffixRules aturan = AffixRules.current();
   
   public Indo() {
     b = new char[INC];
@@ -92,20 +112,88 @@ class Indo
    */
   public void reset() { i = 0; j = 0; k = 0; awal = 0; awal0 = 0; vok = 0; panjang = 0; panjang0 = 0;
       dirty = false; dash = false; kai = false; kmn = false; klp = false; men = false; pen = false; 
-      kanani = ""; kumunya = ""; kahlahpun = ""; menge = ""; penge = ""; falsedash = false; sukukata = 0;
+      kanani = 0; kumunya = 0; kahlahpun = 0; menge = AffixCode.NONE; penge = AffixCode.NONE; falsedash = false; sukukata = 0;
+      jenisUlang = 0;
+      awalanUlang = AffixCode.AWALAN_NONE; akhiranUlang = AffixCode.AKHIRAN_NONE;
+      berprofil = false;
   }
     
   public void reset(String s) {
-    char[] c = b;
+    geser();
+  }
+  
+  /* geser() moves b[awal..k] to the front of b, so the remainder of the
+     word can be analysed again from position 0. */
+  private void geser() {
     int j1 = j;
     int k1 = k;
     int awal1 = awal;
     i = 0; j = 0; k = 0; awal = 0; awal0 = 0;
     for (int o = awal1; o < k1+1; o++)
-        add(c[o]);
+        b[i++] = b[o];
     j = j1-awal1; k = k1 - awal1; 
+    berprofil = false;
+  }
+  
+  /**
+   * Installs a listener for diagnostic events such as monosyllabic words
+   * and suspected typos in reduplications.  Pass null to remove it.
+   */
+  public void setDiagnostics(StemDiagnostics d) {
+    diagnostics = d == null ? StemDiagnostics.NONE : d;
+  }
+  
+  /**
+   * Installs a cache of earlier results, which may be shared with other
+   * instances.  Pass null to remove it.  The cache is consulted by the
+   * stem(char[]...) and stem(String) methods; words built up with add()
+   * are always stemmed afresh.  A word answered from the cache raises
+   * no diagnostic events.
+   */
+  public void setCache(StemCache c) {
+    cache = c;
+  }
+  
+  /** Returns the installed cache, or null. */
+  public StemCache getCache() { return cache; }
+  
+  /**
+   * Installs a lexicon of root words, which may be shared with other
+   * instances.  Pass null to remove it.  A word that is itself a root is
+   * left unchanged, and a word whose root appears in the lexicon once its
+   * suffix, its prefix or both are removed is cut to that root without
+   * running the rest of the rules.  Any other word is stemmed as usual.
+   */
+  public void setLexicon(RootLexicon l) {
+    lexicon = l;
   }
   
+  /** Returns the installed lexicon, or null. */
+  public RootLexicon getLexicon() { return lexicon; }
+  
+  /**
+   * Installs a precomputed table of stems, which may be shared with other
+   * instances.  Pass null to remove it.  It is consulted before the cache
+   * and the rules by the stem(char[]...) and stem(String) methods.
+   */
+  public void setStemTable(StemTable t) {
+    table = t;
+  }
+  
+  /** Returns the installed stem table, or null. */
+  public StemTable getStemTable() { return table; }
+  
+  /**
+   * Installs counters for what this instance does, which may be shared
+   * with other instances.  Pass null, the default, to count nothing.
+   */
+  public void setMetrics(StemMetrics m) {
+    metrics = m;
+  }
+  
+  /** Returns the installed metrics, or null. */
+  public StemMetrics getMetrics() { return metrics; }
+  
   /**
    * Add a character to the word being stemmed.  When you are finished
    * adding characters, you can call stem(void) to process the word.
@@ -117,12 +205,13 @@ class Indo
       b = new_b;
     }
     b[i++] = ch;
+    berprofil = false;
   }
   
   /**
    * After a word has been stemmed, it can be retrieved by toString(),
-   * or a reference to the internal buffer can be retrieved by getResultBuffer
-   * and getResultLength (which is generally more efficient.)
+   * or a reference to the internal buffer can be retrieved by getResultBuffer,
+   * getResultOffset and getResultLength (which is generally more efficient.)
    */   
   public String toString() { 
     if (awal > 0) ;
@@ -138,10 +227,17 @@ class Indo
     return i-awal; 
   }
   
+  /**
+   * Returns the offset in getResultBuffer() at which the result of the
+   * stemming process starts.  A stripped prefix is skipped by moving the
+   * start of the word rather than copying the rest of it.
+   */
+  public int getResultOffset() { return awal; }
+  
   /**
    * Returns a reference to a character buffer containing the results of
-   * the stemming process.  You also need to consult getResultLength()
-   * to determine the length of the result.
+   * the stemming process.  You also need to consult getResultOffset()
+   * and getResultLength() to locate the result.
    */
   public char[] getResultBuffer() { return b; }
   
@@ -180,6 +276,11 @@ class Indo
    */
 //jumlah suku kata
   public final int m() {
+    if (k0 <= k && k < i) {
+      profil();
+      vok += jmlRuas[k+1];
+      return vok;
+    }
     int n = 0;
     int i = k0;
     while(true) {
@@ -214,62 +315,45 @@ class Indo
   }
   
 //jumlah sukukata - dilihat dari jumlah vokalnya
-//perkecualian = diftong ai, oi, au 
+//perkecualian diftong ai, oi, au tidak pernah berlaku: isA/isO versi lama
+//selalu sudah dihapus sebelum diperiksa, jadi yang dihitung hanya vokalnya
   public int sukukata(String s) {
-    int v = 0, index = 0;
-    boolean isA = false;
-    boolean isO = false;
-    while(true) {
-      if (index >= s.length())
-        return v;
-      if (vokal(s.charAt(index)))//kalau vokal
-        break;
-      index++;
+    return sukukata(s.toCharArray(), 0, s.length());
+  }
+  
+  /* sukukata(s, from, to) counts the syllables of s[from..to-1].  For a
+     range of the word being stemmed it is answered from the profile. */
+  public int sukukata(char[] s, int from, int to) {
+    if (s == b && 0 <= from && from <= to && to <= i) {
+      profil();
+      return jmlVokal[to] - jmlVokal[from];
     }
-//     sukukata++;
-    v++;
-    if (s.charAt(index) == 'a') 
-      isA = true;
-    if (s.charAt(index) == 'o')
-      isO = true;
-    index++;
-    while(true) {
-      while(true) {
-        if (index >= s.length())
-          return v;
-        if (!vokal(s.charAt(index)))//kalau konsonan
-          break;
+    int v = 0;
+    for (int o = from; o < to; o++)
+      if (vokal(s[o]))
         v++;
-        index++;
-      }
-      index++;
-      isA = false;
-      isO = false;
-      while(true) {
-        if (index >= s.length())
-          return v;
-        if (vokal(s.charAt(index)))//kalau vokal
-          break;
-        index++;
-        isA = false;
-        isO = false;
-      }
-      if (isA || isO) {
-          if (s.charAt(index) != 'i')
-//           sukukata++;
-            v++;
-      } else {
-        if (s.charAt(index) == 'a') 
-          isA = true;
-        if (s.charAt(index) == 'o')
-          isO = true;
-//           sukukata++;
-          v++;
-      }
-      index++;
-      isA = false;
-      isO = false;
+    return v;
+  }
+  
+  /* profil() builds jmlVokal and jmlRuas for b[0..i), unless they are
+     still valid. */
+  private void profil() {
+    if (berprofil)
+      return;
+    if (jmlVokal.length < i+1) {
+      jmlVokal = new int[b.length+1];
+      jmlRuas = new int[b.length+1];
+    }
+    boolean konsonan = true;  /* cons() of the previous position */
+    for (int o = 0; o < i; o++) {
+      char c = b[o];
+      boolean v = vokal(c);
+      jmlVokal[o+1] = jmlVokal[o] + (v ? 1 : 0);
+      boolean kon = c == 'y' ? o == k0 || !konsonan : !v;
+      jmlRuas[o+1] = jmlRuas[o] + (o >= k0 && !kon && (o == k0 || konsonan) ? 1 : 0);
+      konsonan = kon;
     }
+    berprofil = true;
   }
   
   /* vowelinstem() is true <=> k0,...j contains a vowel */
@@ -355,23 +439,24 @@ class Indo
       b[o+i] = s.charAt(i);
     k = j+l;
     dirty = true;
+    berprofil = false;
   }
   
   /* r(s) is used further down. */ //replace  
   void r(String s) { if (m() > 0) setto(s); }
   
   private final void reduplikasi() {
-    String dbugger = this.toString();
-    String ak = berakhiran();
-    String aw = berawalan();
+    int ak = berakhiran();
+    int aw = berawalan();
+    if (metrics != null) metrics.affixes(ak, aw);
     int sukuAwalan = 0;
-    char em4 = aw.charAt(5);
-    if (em4 == '6' || em4 == '7' || em4 == '8' || em4 == '9') sukuAwalan += 2;
-    else if (aw.charAt(4) != '0') sukuAwalan++;
+    int em4 = AffixCode.varian(aw);
+    if (em4 >= 6 && em4 <= 9) sukuAwalan += 2;
+    else if (AffixCode.kelas(aw) != 0) sukuAwalan++;
     int sukuAkhiran = 0;
-    if (ak.charAt(4) != '0') sukuAkhiran++;
-    if (ak.charAt(5) != '0') sukuAkhiran++;
-    if (ak.charAt(6) != '0') sukuAkhiran++;
+    if (AffixCode.kanani(ak) != 0) sukuAkhiran++;
+    if (AffixCode.kumunya(ak) != 0) sukuAkhiran++;
+    if (AffixCode.kahlahpun(ak) != 0) sukuAkhiran++;
     int pAkhiran = panjang;
     int pAwalan = panjang0;
     int sk = m();
@@ -380,71 +465,66 @@ class Indo
     boolean tekateki = false;
     
     if (sk > 1) {
-      Indo pertama = new Indo();
-      Indo kedua = new Indo();
-      for (int u = 0; u < i; u++) {
-        if (b[u] == '-' && !dash)
-          dash = true;
-        else if (!dash)
-          pertama.add (b[u]);
-        else
-          kedua.add (b[u]);
-      }
-      String per1 = pertama.toString();
-      String ke2 = kedua.toString();
-      sukuKedua = sukukata(ke2);
-      sukuPertama = sukukata(per1);
+      /* kata pertama b[0..per1), kata kedua b[ke0..i), tanpa membuat objek baru */
+      int per1 = Reduplikasi.tanda(b, 0, i);
+      dash = per1 >= 0;
+      if (!dash) per1 = i;
+      int ke0 = dash ? per1+1 : i;
+      int ke2 = i-ke0;
+      sukuKedua = sukukata(b, ke0, i);
+      sukuPertama = sukukata(b, 0, per1);
  
       if (dash) {
-          if (per1.equalsIgnoreCase ("ke") ) { //i.e. ke-Allahan
-          starts(per1);
-          awal = awal0+1;
-        } else if (per1.equalsIgnoreCase (ke2) ) { //i.e. ahli-ahli
-          ends(ke2);
-          k = j-1;//potong yang kedua
-        } else if (pertama.ends (ke2) ) { //i.e. berabad-abad
-          starts(per1);
-          awal = awal0+1;//potong yang pertama
-        } else if (kedua.ends (per1) ) { //i.e. ambil-mengambil
-          ends(ke2);
-          k = j-1;//potong yang kedua
-        } else if (pertama.starts (ke2) ) { //i.e. ..nya-.. tidak ada kecuali typo
-          System.out.println (this.toString() + " SALAH");
-          starts (per1);
+        int jenis = Reduplikasi.jenis(b, per1, i);
+        jenisUlang = jenis != Reduplikasi.LAIN ? jenis
+          : panjang0 > 0 & panjang > 0 && sukuKedua > 2 ? Reduplikasi.IMBUHAN
+          : falsedash ? Reduplikasi.KLITIK : Reduplikasi.LAINNYA;
+        if (metrics != null) metrics.reduplication(jenisUlang);
+        /* imbuhan yang hanya ada di separuh yang dibuang */
+        if (jenisUlang == Reduplikasi.IMBUHAN) { //dibagi-bagikan
+          awalanUlang = aw;
+          akhiranUlang = ak;
+        } else if (jenisUlang == Reduplikasi.BUANG_PERTAMA || jenisUlang == Reduplikasi.SALAH_KETIK) {
+          if (panjang0 > 0 && panjang0 <= per1-ke2) awalanUlang = aw; //berabad-abad
+        } else if (jenisUlang == Reduplikasi.BUANG_KEDUA) {
+          if (ke2 > per1) akhiranUlang = AffixCode.luar(ak, ke2-per1); //ahli-ahlimu
+        } else if (jenisUlang == Reduplikasi.KLITIK) { //buka-ku
+          akhiranUlang = ak;
+        }
+        if (jenis == Reduplikasi.SALAH_KETIK)
+          diagnostics.suspectedTypo(b, awal, i-awal);
+        if (jenis == Reduplikasi.BUANG_PERTAMA || jenis == Reduplikasi.SALAH_KETIK) {
+          awal0 = per1;
           awal = awal0+1;//potong yang pertama
-        } else if (kedua.starts (per1) ) { //i.e. ahli-ahlimu
-          ends(ke2);
+        } else if (jenis == Reduplikasi.BUANG_KEDUA) {
+          j = k-ke2;
           k = j-1;//potong yang kedua
         } else if (panjang0 > 0 & panjang > 0 && sukuKedua > 2){ //i.e. dibagi-bagikan
 //          if (panjang > 0 && sukukata(ke2) > 2) { //kalau jumlah suku kata (termasuk akhiran) > 2
-//             if ( sukuPertama - sukuAkhiran < 2) minOne(ak);
+//             if ( sukuPertama - sukuAkhiran < 2) minOneAkhiran(ak);
         int sukuTotal = sukuKedua - sukuAkhiran;//=0
             int awal1 = awal;
-              if (penge == "peny" || menge == "meny") { 
+              if (penge == AffixCode.ENY || menge == AffixCode.ENY) { 
                 }
-              else if ((penge == "peng" || menge == "meng") && vokal(b[4])) { //mengata-ngatai
-                  if (ke2.charAt(0) == 'n' && ke2.charAt(1) == 'g') {
-                      if (penge == "peng") penge = "pe";
-                      else if (menge == "peng") menge = "me";
+              else if ((penge == AffixCode.ENG || menge == AffixCode.ENG) && vokal(b[4])) { //mengata-ngatai
+                  if (b[ke0] == 'n' && b[ke0+1] == 'g') {
+                      if (penge == AffixCode.ENG) penge = AffixCode.E;
                       awal0 -= 2;
                     }
                 }
-              else if ((penge == "pem" || menge == "mem") && vokal(b[3])) { 
-                  if (ke2.charAt(0) == 'm') {
-                      if (penge == "pem") penge = "pe";
-                      else if (menge == "pem") menge = "me";
+              else if ((penge == AffixCode.EM || menge == AffixCode.EM) && vokal(b[3])) { 
+                  if (b[ke0] == 'm') {
+                      if (penge == AffixCode.EM) penge = AffixCode.E;
                       awal0 -= 1;
                     }
                 }
-              else if ((penge == "pen" || menge == "men") && vokal(b[3])) { 
-                  if (ke2.charAt(0) == 'n') {
-                      if (penge == "pen") penge = "pe";
-                      else if (menge == "pen") menge = "me";
+              else if ((penge == AffixCode.EN || menge == AffixCode.EN) && vokal(b[3])) { 
+                  if (b[ke0] == 'n') {
+                      if (penge == AffixCode.EN) penge = AffixCode.E;
                       awal0 -= 1;
                     }
                 }
             if (sukuKedua - sukuAkhiran < 2 && sukuAwalan != 0) awal = awal0; 
-            int pan = per1.length();
 //         reset (this.toString());
 //         dbugger = this.toString();
 //         ak = berakhiran();
@@ -457,42 +537,40 @@ class Indo
 // //             char[] new_b = new char[b.length];
 // //             System.arraycopy(b, 0, new_b, awal0, pertama.getResultLength());
 // System.out.println(this.toString());
-            per1 = new String (b,awal0,pertama.getResultLength()-awal0);/**/
+            int dasar = per1-awal0;/**/
             awal = awal1;
-            if (kedua.starts(per1)) { //i.e. berlain-lain
-                ends(ke2);//ends(ke2);
+            if (dasar <= ke2 && Reduplikasi.cocok(b, ke0, awal0, dasar)) { //i.e. berlain-lain
+                j = k-ke2;//ends(ke2);
                 k = j-1;//potong yang kedua
                 awal = awal0;
             } 
           } else if (falsedash) {
                 k = j;
           } else {
-              int aa = pertama.getResultLength();
-              int ab = kedua.getResultLength();
+              int aa = per1;
+              int ab = ke2;
               if (panjang > 0 && ab - panjang < aa) { 
-                  minOne(ak); k = j; 
+                  minOneAkhiran(ak); k = j; 
 //                   System.out.println ("teka-tekiku " + this.toString()); 
                 }
               if (panjang0 > 0 && aa - panjang0 < ab) { 
-                  minOne(aw); awal = awal0; 
+                  minOneAwalan(aw); awal = awal0; 
 //                   System.out.println ("memaki-maki " + this.toString()); 
                 }
-              if (sukuAkhiran > 0 && ke2.length()-sukuAkhiran == per1.length()) {
+              if (sukuAkhiran > 0 && ke2-sukuAkhiran == per1) {
                 k = j;//potong yang kedua
             }
-              if (sukuAwalan > 0 && per1.length()-sukuAwalan == ke2.length()) {
+              if (sukuAwalan > 0 && per1-sukuAwalan == ke2) {
                 awal = awal0;//potong yang kedua
             }
 //               System.out.println("Nama diri atau kata ulang berubah bunyi: "+this.toString());
               tekateki = true;
           }
 //         if (falsedash) System.out.print (this.toString() +  "   ");
-        reset (this.toString());
-        dbugger = this.toString();
+        geser();
         ak = berakhiran();
-        cek(ak);
         if (!vokal(b[2]) && !vokal (b[3])) { 
-            aw = "type0N"; 
+            aw = AffixCode.AWALAN_NONE; 
             pAwalan = 0; 
         }
         else { 
@@ -505,89 +583,89 @@ class Indo
 
     if (pAwalan > 0 && pAkhiran > 0 && !tekateki) {//pengertianmukah
         int sukuTotal = sukuPertama - sukuAwalan - sukuAkhiran;//=0
-        if (klp && kahlahpun != "pun" && sukuTotal < 2) {
+        if (klp && kahlahpun != AffixCode.PUN && sukuTotal < 2) {
                 if (sukuAkhiran == 3) {//anmukah
-                    if (sukuAwalan == 2) minOne(aw);//peng
-                    else minOne(ak);//mukah
+                    if (sukuAwalan == 2) minOneAwalan(aw);//peng
+                    else minOneAkhiran(ak);//mukah
                     sukuTotal++;//=1
                     if (sukuTotal < 2) {//=1
-                        if (sukuAkhiran == 2) minOne(ak);//peng
-                        else minOne(aw);//<s>peng</s>
+                        if (sukuAkhiran == 2) minOneAkhiran(ak);//peng
+                        else minOneAwalan(aw);//<s>peng</s>
                     }
                 } else {
-                    if (sukuAkhiran == 2) minOne(ak);
-                    else minOne(aw);
+                    if (sukuAkhiran == 2) minOneAkhiran(ak);
+                    else minOneAwalan(aw);
                     sukuTotal++;
                     if (sukuTotal < 2) 
-                        if (sukuAwalan == 2) minOne(aw);
-                        else minOne(ak);
+                        if (sukuAwalan == 2) minOneAwalan(aw);
+                        else minOneAkhiran(ak);
                 }
-        } else if (klp && kahlahpun == "pun" && sukuTotal < 2) {
+        } else if (klp && kahlahpun == AffixCode.PUN && sukuTotal < 2) {
                 if (sukuAkhiran == 3) {
-                    if (sukuAwalan == 2) minOne(ak);
-                    else minOne(aw);
+                    if (sukuAwalan == 2) minOneAkhiran(ak);
+                    else minOneAwalan(aw);
                     sukuTotal++;
                     if (sukuTotal < 2) {
-                        if (sukuAwalan == 2) minOne(aw);
-                        else minOne(ak);
+                        if (sukuAwalan == 2) minOneAwalan(aw);
+                        else minOneAkhiran(ak);
                     }
                 } else {
-                    if (sukuAwalan == 2) minOne(aw);
-                    else minOne(ak);
+                    if (sukuAwalan == 2) minOneAwalan(aw);
+                    else minOneAkhiran(ak);
                     sukuTotal++;
                     if (sukuTotal < 2) 
-                        if (sukuAkhiran == 2) minOne(ak);
-                        else minOne(aw);
+                        if (sukuAkhiran == 2) minOneAkhiran(ak);
+                        else minOneAwalan(aw);
                 }
-        } else if (kmn && kumunya != "nya" && kumunya != "-nya" && sukuTotal < 2) {
+        } else if (kmn && kumunya != AffixCode.NYA && kumunya != AffixCode.DASH_NYA && sukuTotal < 2) {
                 if (sukuAkhiran == 2) {
-                    if (sukuAwalan == 2) minOne(aw);
-                    else minOne(ak);
+                    if (sukuAwalan == 2) minOneAwalan(aw);
+                    else minOneAkhiran(ak);
                     sukuTotal++;
                     if (sukuTotal < 2) {
-                        if (sukuAkhiran == 2) minOne(ak);
-                        else minOne(aw);
+                        if (sukuAkhiran == 2) minOneAkhiran(ak);
+                        else minOneAwalan(aw);
                     }
                 } else {
-                    minOne(aw);
+                    minOneAwalan(aw);
                     sukuTotal++;
                     if (sukuTotal < 2) 
-                        if (sukuAwalan == 2) minOne(aw);
-                        else minOne(ak);
+                        if (sukuAwalan == 2) minOneAwalan(aw);
+                        else minOneAkhiran(ak);
                 }
         } else if (kmn && sukuTotal < 2) {
                 if (sukuAkhiran == 3) {
-                    if (sukuAwalan == 2) minOne(ak);
-                    else minOne(aw);
+                    if (sukuAwalan == 2) minOneAkhiran(ak);
+                    else minOneAwalan(aw);
                     sukuTotal++;
                     if (sukuTotal < 2) {
-                        if (sukuAwalan == 2) minOne(aw);
-                        else minOne(ak);
+                        if (sukuAwalan == 2) minOneAwalan(aw);
+                        else minOneAkhiran(ak);
                     }
                 } else {
-                    if (sukuAwalan == 2) minOne(aw);
-                    else minOne(ak);
+                    if (sukuAwalan == 2) minOneAwalan(aw);
+                    else minOneAkhiran(ak);
                     sukuTotal++;
                     if (sukuTotal < 2) 
-                        if (sukuAkhiran == 2) minOne(ak);
-                        else minOne(aw);
+                        if (sukuAkhiran == 2) minOneAkhiran(ak);
+                        else minOneAwalan(aw);
                 }
         } else if (kai && sukuTotal < 2) {
-                minOne(ak);
+                minOneAkhiran(ak);
         } 
-              /*if (penge == "peny" || menge == "meny") { 
+              /*if (penge == AffixCode.ENY || menge == AffixCode.ENY) { 
                   if(awal0 > 0) awal = awal0-1;
 //                   b[3] = 's';
                 }
-              else if ((penge == "peng" || menge == "meng") && vokal(b[4])) { 
+              else if ((penge == AffixCode.ENG || menge == AffixCode.ENG) && vokal(b[4])) { 
                   if(awal0 > 0) awal = awal0-1;
 //                   b[3] = 'k';
                 }
-              else */if ((penge == "pem" || menge == "mem") && vokal(b[3])) { 
+              else */if ((penge == AffixCode.EM || menge == AffixCode.EM) && vokal(b[3])) { 
                   if(awal0 > 0) awal = awal0-1;
 //                   b[2] = 'p';
                 }
-              else if ((penge == "pen" || menge == "men") && vokal(b[3])) { 
+              else if ((penge == AffixCode.EN || menge == AffixCode.EN) && vokal(b[3])) { 
                   if(awal0 > 0) awal = awal0-1;
 //                   b[2] = 't';
                 }
@@ -596,25 +674,25 @@ class Indo
               else {
                   if(awal0 > 0) awal = awal0;
                 }
-//               if ( sukuPertama - sukuAkhiran < 2) minOne(ak);
+//               if ( sukuPertama - sukuAkhiran < 2) minOneAkhiran(ak);
               if (k+1 != j) k = j;
           } else if (pAkhiran > 0 && pAwalan == 0 && !tekateki) {
-//               if ( sukuPertama - sukuAkhiran < 2) minOne(ak);
+//               if ( sukuPertama - sukuAkhiran < 2) minOneAkhiran(ak);
               if (k+1 != j) k = j;
           } else if (pAwalan > 0 && pAkhiran == 0) { // && sukuPertama-sukuAkhiran < 2
-              /*if (penge == "peny" || menge == "meny") { 
+              /*if (penge == AffixCode.ENY || menge == AffixCode.ENY) { 
                   if(awal0 > 0) awal = awal0-1;
 //                   b[3] = 's';
                 }
-              else if ((penge == "peng" || menge == "meng") && vokal(b[4])) { 
+              else if ((penge == AffixCode.ENG || menge == AffixCode.ENG) && vokal(b[4])) { 
                   if(awal0 > 0) awal = awal0-1;
 //                   b[3] = 'k';
                 }
-              else */if ((penge == "pem" || menge == "mem") && vokal(b[3])) { 
+              else */if ((penge == AffixCode.EM || menge == AffixCode.EM) && vokal(b[3])) { 
                   if(awal0 > 0) awal = awal0-1;
 //                   b[2] = 'p';
                 }
-              else if ((penge == "pen" || menge == "men") && vokal(b[3])) { 
+              else if ((penge == AffixCode.EN || menge == AffixCode.EN) && vokal(b[3])) { 
                   if(awal0 > 0) awal = awal0-1;
 //                   b[2] = 't';
                 }
@@ -626,252 +704,133 @@ class Indo
           }
   }
   
-//untuk memotong jumlah kombinasi akhiran
-  private void minOne (String s) {
-      if (s.length() == 6) {
-          switch(s.charAt(5)){
-              case '9': awal0 -= 3; break;
-              case '8': awal0 -= 3; break;
-              case '7': awal0 -= 3; break;
-              case '6': awal0 -= 1; break;
-              case '5': awal0 -= 4; break;
-              case '4': awal0 -= 4; break;
-              case '3': awal0 -= 3; break;
-              case '2': awal0 -= 3; break;
-              case '1': awal0 -= 2; break;
-              case '0': awal0 -= 3; break;
+  /* tanpaImbuhan() is true when no rule can touch the word: it has no
+     hyphen, and it neither ends with the last letter of a suffix nor
+     starts with the first letter of a prefix that its syllable count
+     allows.  berakhiran() and berawalan() would both find nothing, so
+     reduplikasi() would leave it as it is.  Most words of running text
+     are roots and stop here. */
+  private boolean tanpaImbuhan() {
+    boolean akhiran = AffixRules.ada(aturan.akhiranAkhir, b[i-1]);
+    boolean awalan = AffixRules.ada(aturan.awalanAwal, b[0]);
+    if (akhiran || awalan) {
+      int suku = sukukata(b, 0, i);
+      if (akhiran && suku > aturan.akhiranSuku || awalan && suku > aturan.awalanSuku)
+        return false;
+    }
+    for (int o = 0; o < i; o++)
+      if (b[o] == '-')
+        return false;
+    return true;
+  }
+  
+  /* kamus() mencari kata dasar di leksikon: kata utuh, tanpa akhiran, tanpa
+     awalan, lalu tanpa keduanya.  Kalau ketemu, awal dan k menunjuk kata
+     dasar itu.  Kalau tidak, semua field dikembalikan seperti semula. */
+  private boolean kamus() {
+    if (lexicon.contains(b, 0, i))
+      return true;
+    int n = i;
+    berakhiran();
+    int p = panjang;
+    if (p > 0 && p < n && lexicon.contains(b, 0, n-p)) {
+      k = n-p-1;
+      return true;
+    }
+    int aw = berawalan();
+    int a = AffixCode.varian(aw) == AffixCode.NONE ? 0 : awal0;
+    if (a > 0 && (dasar(aw, a, n) || p > 0 && dasar(aw, a, n-p)))
+      return true;
+    reset();
+    i = n;
+    k = n-1;
+    return false;
+  }
+  
+  /* dasar() mencoba b[a..e) sebagai kata dasar, dan untuk me-/pe- yang
+     meluluhkan huruf pertama (memukul, menulis, menyapu, mengirim) juga
+     dengan huruf yang luluh itu dikembalikan. */
+  private boolean dasar(int aw, int a, int e) {
+    if (e <= a)
+      return false;
+    if (lexicon.contains(b, a, e-a)) {
+      awal = a;
+      k = e-1;
+      return true;
+    }
+    char luluh = 0;
+    int kelas = AffixCode.kelas(aw);
+    if (kelas == 3 || kelas == 4)
+      switch (AffixCode.varian(aw)) {
+        case AffixCode.EM:  luluh = 'p'; break;
+        case AffixCode.EN:  luluh = 't'; break;
+        case AffixCode.ENY: luluh = 's'; break;
+        case AffixCode.ENG: luluh = 'k'; break;
+      }
+    if (luluh != 0 && lexicon.contains(luluh, b, a, e-a)) {
+      b[a-1] = luluh;
+      berprofil = false;
+      awal = a-1;
+      k = e-1;
+      return true;
+    }
+    return false;
+  }
+  
+//untuk memotong jumlah kombinasi awalan
+  private void minOneAwalan (int aw) {
+          switch(AffixCode.varian(aw)){
+              case 9: awal0 -= 3; break;
+              case 8: awal0 -= 3; break;
+              case 7: awal0 -= 3; break;
+              case 6: awal0 -= 1; break;
+              case 5: awal0 -= 4; break;
+              case 4: awal0 -= 4; break;
+              case 3: awal0 -= 3; break;
+              case 2: awal0 -= 3; break;
+              case 1: awal0 -= 2; break;
+              case 0: awal0 -= 3; break;
             }
-//           else if (shadow.starts("penter")) { if (suku > 3) awalan = "type39"; else if (suku > 2) awalan = "type33"; else awalan = "type0N"; } 
-//     else if (shadow.starts("pember")) { if (suku > 3) awalan = "type37"; else if (suku > 2) awalan = "type32"; else awalan = "type0N"; } 
-//     else if (shadow.starts("penge")) { if (suku > 3) awalan = "type36"; else if (suku > 2) awalan = "type35"; else awalan = "type0N"; }  
-//     else if (shadow.starts("menter")) { if (suku > 3) awalan = "type49"; else if (suku > 2) awalan = "type43"; else awalan = "type0N"; } 
-//     else if (shadow.starts("memper")) { if (suku > 3) awalan = "type48"; else if (suku > 2) awalan = "type42"; else awalan = "type0N"; } 
-//     else if (shadow.starts("member")) { if (suku > 3) awalan = "type47"; else if (suku > 2) awalan = "type42"; else awalan = "type0N"; } 
-//     else if (shadow.starts("menge")) { if (suku > 3) awalan = "type46"; else if (suku > 2) awalan = "type45"; else awalan = "type0N"; } 
-//     else if (shadow.starts("diter")) { if (suku > 3) awalan = "type59"; else if (suku > 2) awalan = "type51"; else awalan = "type0N"; } 
-//     else if (shadow.starts("diper")) { if (suku > 3) awalan = "type58"; else if (suku > 2) awalan = "type51"; else awalan = "type0N"; } 
-//     else if (shadow.starts("kauter")) { if (suku > 3) awalan = "type89"; else if (suku > 2) awalan = "type80"; else awalan = "type0N"; } 
-//     else if (shadow.starts("kauper")) { if (suku > 3) awalan = "type88"; else if (suku > 2) awalan = "type80"; else awalan = "type0N"; } 
-//     else if (shadow.starts("kuter")) { if (suku > 3) awalan = "type99"; else if (suku > 2) awalan = "type91"; else awalan = "type0N"; } 
-//     else if (shadow.starts("kuper")) { if (suku > 3) awalan = "type98"; else if (suku > 2) awalan = "type91"; else awalan = "type0N"; } 
-    
-        } else if (s.length() == 8) {
+  }
+  
+//untuk memotong jumlah kombinasi akhiran
+  private void minOneAkhiran (int ak) {
       boolean kanani1 = true;
-    switch(s.charAt(4)){
-        case '1': kanani = ""; kanani1 = false; j += 1; break;
-        case '2': kanani = ""; kanani1 = false; j += 2; break;
-        case '3': kanani = ""; kanani1 = false; j += 3; break;
+    switch(AffixCode.kanani(ak)){
+        case 1: kanani = 0; kanani1 = false; j += 1; break;
+        case 2: kanani = 0; kanani1 = false; j += 2; break;
+        case 3: kanani = 0; kanani1 = false; j += 3; break;
     }
     if (kanani1) {
         boolean kumunya1 = true;
-    switch(s.charAt(5)){
-        case '1': kumunya = ""; kumunya1 = false; j += 2; break;
-        case '2': kumunya = ""; kumunya1 = false; j += 2; break;
-        case '3': kumunya = ""; kumunya1 = false; j += 3; break;
-        case '4': kumunya = ""; kumunya1 = false; j += 3; break;
-        case '5': kumunya = ""; kumunya1 = false; j += 3; break;
-        case '6': kumunya = ""; kumunya1 = false; j += 4; break;
+    switch(AffixCode.kumunya(ak)){
+        case 1: kumunya = 0; kumunya1 = false; j += 2; break;
+        case 2: kumunya = 0; kumunya1 = false; j += 2; break;
+        case 3: kumunya = 0; kumunya1 = false; j += 3; break;
+        case 4: kumunya = 0; kumunya1 = false; j += 3; break;
+        case 5: kumunya = 0; kumunya1 = false; j += 3; break;
+        case 6: kumunya = 0; kumunya1 = false; j += 4; break;
     } if (kanani1 && kumunya1) {
-    switch(s.charAt(6)){
-        case '1': kahlahpun = ""; j += 3; break;
-        case '2': kahlahpun = ""; j += 3; break;
-        case '3': kahlahpun = ""; j += 3; break;
-        case '4': kahlahpun = ""; j += 3; break;
-    }
+    switch(AffixCode.kahlahpun(ak)){
+        case 1: kahlahpun = 0; j += 3; break;
+        case 2: kahlahpun = 0; j += 3; break;
+        case 3: kahlahpun = 0; j += 3; break;
+        case 4: kahlahpun = 0; j += 3; break;
     }
     }
-    if (kanani == "") kai = false;
-    if (kumunya == "") kmn = false;
-    if (kahlahpun == "") klp = false;
     }
+    if (kanani == 0) kai = false;
+    if (kumunya == 0) kmn = false;
+    if (kahlahpun == 0) klp = false;
   }
   
-  public final String berakhiran() {
+  public final int berakhiran() {
     vok = 0;//reset
-    String akhiran = "type000N";
-    int suku = sukukata(this.toString());
-//     if (ends("wati")) { if (suku > 3) akhiran = "type6004"; else akhiran = "type000N"; }
-    if (ends("wan")) { if (suku > 2) akhiran = "type5003"; else akhiran = "type000N"; }
-    else if (ends("wi")) { if (suku > 2) akhiran = "type4002"; else akhiran = "type000N"; }
-    
-//    else if (ends("kan-nyatah")) { if (suku > 4) akhiran = "type3640"; else if (suku > 3) akhiran = "type0647"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("kan-nyapun")) { if (suku > 4) akhiran = "type3630"; else if (suku > 3) akhiran = "type0637"; else if (suku > 2) akhiran = "type0034"; else akhiran = "type000N"; }
-    else if (ends("kan-nyalah")) { if (suku > 4) akhiran = "type3620"; else if (suku > 3) akhiran = "type0627"; else if (suku > 2) akhiran = "type0024"; else akhiran = "type000N"; }
-    else if (ends("kan-nyakah")) { if (suku > 4) akhiran = "type3610"; else if (suku > 3) akhiran = "type0617"; else if (suku > 2) akhiran = "type0014"; else akhiran = "type000N"; }
-    else if (ends("kan-nya")) { if (suku > 3) akhiran = "type3607"; else if (suku > 2) akhiran = "type0604"; else akhiran = "type000N"; }
-//    else if (ends("kanmutah")) { if (suku > 4) akhiran = "type3549"; else if (suku > 3) akhiran = "type0546"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("kan-mupun")) { if (suku > 4) akhiran = "type3539"; else if (suku > 3) akhiran = "type0536"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("kan-mulah")) { if (suku > 4) akhiran = "type3529"; else if (suku > 3) akhiran = "type0526"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("kan-mukah")) { if (suku > 4) akhiran = "type3519"; else if (suku > 3) akhiran = "type0516"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("kan-mu")) { if (suku > 3) akhiran = "type3506"; else if (suku > 2) akhiran = "type0503"; else akhiran = "type000N"; }
-//    else if (ends("kan-kutah")) { if (suku > 4) akhiran = "type3449"; else if (suku > 3) akhiran = "type0446"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("kan-kupun")) { if (suku > 4) akhiran = "type3439"; else if (suku > 3) akhiran = "type0436"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("kan-kulah")) { if (suku > 4) akhiran = "type3429"; else if (suku > 3) akhiran = "type0426"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("kan-kukah")) { if (suku > 4) akhiran = "type3419"; else if (suku > 3) akhiran = "type0416"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("kan-ku")) { if (suku > 3) akhiran = "type3406"; else if (suku > 2) akhiran = "type0403"; else akhiran = "type000N"; }
-//    else if (ends("kannyatah")) { if (suku > 4) akhiran = "type3349"; else if (suku > 3) akhiran = "type0346"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("kannyapun")) { if (suku > 4) akhiran = "type3339"; else if (suku > 3) akhiran = "type0336"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("kannyalah")) { if (suku > 4) akhiran = "type3329"; else if (suku > 3) akhiran = "type0326"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("kannyakah")) { if (suku > 4) akhiran = "type3319"; else if (suku > 3) akhiran = "type0316"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("kannya")) { if (suku > 3) akhiran = "type3306"; else if (suku > 2) akhiran = "type0303"; else akhiran = "type000N"; }
-//    else if (ends("kanmutah")) { if (suku > 4) akhiran = "type3248"; else if (suku > 3) akhiran = "type0245"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("kanmupun")) { if (suku > 4) akhiran = "type3238"; else if (suku > 3) akhiran = "type0235"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("kanmulah")) { if (suku > 4) akhiran = "type3228"; else if (suku > 3) akhiran = "type0225"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("kanmukah")) { if (suku > 4) akhiran = "type3218"; else if (suku > 3) akhiran = "type0215"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("kanmu")) { if (suku > 3) akhiran = "type3205"; else if (suku > 2) akhiran = "type0202"; else akhiran = "type000N"; }
-//    else if (ends("kankutah")) { if (suku > 4) akhiran = "type3148"; else if (suku > 3) akhiran = "type0145"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("kankupun")) { if (suku > 4) akhiran = "type3138"; else if (suku > 3) akhiran = "type0135"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("kankulah")) { if (suku > 4) akhiran = "type3128"; else if (suku > 3) akhiran = "type0125"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("kankukah")) { if (suku > 4) akhiran = "type3118"; else if (suku > 3) akhiran = "type0115"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("kanku")) { if (suku > 3) akhiran = "type3105"; else if (suku > 2) akhiran = "type0102"; else akhiran = "type000N"; }
-    //else if (ends("kantah")) { if (suku > 3) akhiran = "type3046"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("kanpun")) { if (suku > 3) akhiran = "type3036"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("kanlah")) { if (suku > 3) akhiran = "type3026"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("kankah")) { if (suku > 3) akhiran = "type3016"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("kan")) { if (suku > 2) akhiran = "type3003"; else akhiran = "type000N"; }
-    
-//    else if (ends("an-nyatah")) { if (suku > 4) akhiran = "type2640"; else if (suku > 3) akhiran = "type0647"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("an-nyapun")) { if (suku > 4) akhiran = "type2639"; else if (suku > 3) akhiran = "type0637"; else if (suku > 2) akhiran = "type0034"; else akhiran = "type000N"; }
-    else if (ends("an-nyalah")) { if (suku > 4) akhiran = "type2629"; else if (suku > 3) akhiran = "type0627"; else if (suku > 2) akhiran = "type0024"; else akhiran = "type000N"; }
-    else if (ends("an-nyakah")) { if (suku > 4) akhiran = "type2619"; else if (suku > 3) akhiran = "type0617"; else if (suku > 2) akhiran = "type0014"; else akhiran = "type000N"; }
-    else if (ends("an-nya")) { if (suku > 3) akhiran = "type2606"; else if (suku > 2) akhiran = "type0604"; else akhiran = "type000N"; }
-//    else if (ends("anmutah")) { if (suku > 4) akhiran = "type2548"; else if (suku > 3) akhiran = "type0546"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("an-mupun")) { if (suku > 4) akhiran = "type2538"; else if (suku > 3) akhiran = "type0536"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("an-mulah")) { if (suku > 4) akhiran = "type2528"; else if (suku > 3) akhiran = "type0526"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("an-mukah")) { if (suku > 4) akhiran = "type2518"; else if (suku > 3) akhiran = "type0516"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("an-mu")) { if (suku > 3) akhiran = "type2505"; else if (suku > 2) akhiran = "type0503"; else akhiran = "type000N"; }
-//    else if (ends("an-kutah")) { if (suku > 4) akhiran = "type2448"; else if (suku > 3) akhiran = "type0446"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("an-kupun")) { if (suku > 4) akhiran = "type2438"; else if (suku > 3) akhiran = "type0436"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("an-kulah")) { if (suku > 4) akhiran = "type2428"; else if (suku > 3) akhiran = "type0426"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("an-kukah")) { if (suku > 4) akhiran = "type2418"; else if (suku > 3) akhiran = "type0416"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("an-ku")) { if (suku > 3) akhiran = "type2405"; else if (suku > 2) akhiran = "type0403"; else akhiran = "type000N"; }
-//    else if (ends("annyatah")) { if (suku > 4) akhiran = "type2348"; else if (suku > 3) akhiran = "type0346"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("annyapun")) { if (suku > 4) akhiran = "type2338"; else if (suku > 3) akhiran = "type0336"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("annyalah")) { if (suku > 4) akhiran = "type2328"; else if (suku > 3) akhiran = "type0326"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("annyakah")) { if (suku > 4) akhiran = "type2318"; else if (suku > 3) akhiran = "type0316"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("annya")) { if (suku > 3) akhiran = "type2305"; else if (suku > 2) akhiran = "type0303"; else akhiran = "type000N"; }
-//    else if (ends("anmutah")) { if (suku > 4) akhiran = "type2247"; else if (suku > 3) akhiran = "type0245"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("anmupun")) { if (suku > 4) akhiran = "type2237"; else if (suku > 3) akhiran = "type0235"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("anmulah")) { if (suku > 4) akhiran = "type2227"; else if (suku > 3) akhiran = "type0225"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("anmukah")) { if (suku > 4) akhiran = "type2217"; else if (suku > 3) akhiran = "type0215"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("anmu")) { if (suku > 3) akhiran = "type2204"; else if (suku > 2) akhiran = "type0202"; else akhiran = "type000N"; }
-//    else if (ends("ankutah")) { if (suku > 4) akhiran = "type2147"; else if (suku > 3) akhiran = "type0145"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("ankupun")) { if (suku > 4) akhiran = "type2137"; else if (suku > 3) akhiran = "type0135"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("ankulah")) { if (suku > 4) akhiran = "type2127"; else if (suku > 3) akhiran = "type0125"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("ankukah")) { if (suku > 4) akhiran = "type2117"; else if (suku > 3) akhiran = "type0115"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("anku")) { if (suku > 3) akhiran = "type2104"; else if (suku > 2) akhiran = "type0102"; else akhiran = "type000N"; }
-    //else if (ends("antah")) { if (suku > 3) akhiran = "type2045"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("anpun")) { if (suku > 3) akhiran = "type2035"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("anlah")) { if (suku > 3) akhiran = "type2025"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("ankah")) { if (suku > 3) akhiran = "type2015"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("an")) { if (suku > 2) akhiran = "type2002"; else akhiran = "type000N"; }
-    
-//    else if (ends("ai-nyatah")) { if (suku > 3) akhiran = "type0647"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-//    else if (ends("i-nyatah")) { if (suku > 4) akhiran = "type1648"; else if (suku > 3) akhiran = "type0647"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("ai-nyapun")) { if (suku > 3) akhiran = "type0637"; else if (suku > 2) akhiran = "type0034"; else akhiran = "type000N"; }
-    else if (ends("i-nyapun")) { if (suku > 4) akhiran = "type1638"; else if (suku > 3) akhiran = "type0637"; else if (suku > 2) akhiran = "type0034"; else akhiran = "type000N"; }
-    else if (ends("ai-nyalah")) { if (suku > 3) akhiran = "type0627"; else if (suku > 2) akhiran = "type0024"; else akhiran = "type000N"; }
-    else if (ends("i-nyalah")) { if (suku > 4) akhiran = "type1628"; else if (suku > 3) akhiran = "type0627"; else if (suku > 2) akhiran = "type0024"; else akhiran = "type000N"; }
-    else if (ends("ai-nyakah")) { if (suku > 3) akhiran = "type0617"; else if (suku > 2) akhiran = "type0014"; else akhiran = "type000N"; }
-    else if (ends("i-nyakah")) { if (suku > 4) akhiran = "type1618"; else if (suku > 3) akhiran = "type0617"; else if (suku > 2) akhiran = "type0014"; else akhiran = "type000N"; }
-    else if (ends("ai-nya")) { if (suku > 2) akhiran = "type0604"; else akhiran = "type000N"; }
-    else if (ends("i-nya")) { if (suku > 3) akhiran = "type1605"; else if (suku > 2) akhiran = "type0604"; else akhiran = "type000N"; }
-//    else if (ends("aimutah")) { if (suku > 3) akhiran = "type0546"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-//    else if (ends("imutah")) { if (suku > 4) akhiran = "type1547"; else if (suku > 3) akhiran = "type0546"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("ai-mupun")) { if (suku > 3) akhiran = "type0536"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("i-mupun")) { if (suku > 4) akhiran = "type1537"; else if (suku > 3) akhiran = "type0536"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("ai-mulah")) { if (suku > 3) akhiran = "type0526"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("i-mulah")) { if (suku > 4) akhiran = "type1527"; else if (suku > 3) akhiran = "type0526"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("ai-mukah")) { if (suku > 3) akhiran = "type0516"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("i-mukah")) { if (suku > 4) akhiran = "type1517"; else if (suku > 3) akhiran = "type0516"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("ai-mu")) { if (suku > 2) akhiran = "type0503"; else akhiran = "type000N"; }
-    else if (ends("i-mu")) { if (suku > 3) akhiran = "type1504"; else if (suku > 2) akhiran = "type0503"; else akhiran = "type000N"; }
-//    else if (ends("ai-kutah")) { if (suku > 3) akhiran = "type0446"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-//    else if (ends("i-kutah")) { if (suku > 4) akhiran = "type1447"; else if (suku > 3) akhiran = "type0446"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("ai-kupun")) { if (suku > 3) akhiran = "type0436"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("i-kupun")) { if (suku > 4) akhiran = "type1437"; else if (suku > 3) akhiran = "type0436"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("ai-kulah")) { if (suku > 3) akhiran = "type0426"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("i-kulah")) { if (suku > 4) akhiran = "type1427"; else if (suku > 3) akhiran = "type0426"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("ai-kukah")) { if (suku > 3) akhiran = "type0416"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("i-kukah")) { if (suku > 4) akhiran = "type1417"; else if (suku > 3) akhiran = "type0416"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("ai-ku")) { if (suku > 2) akhiran = "type0403"; else akhiran = "type000N"; }
-    else if (ends("i-ku")) { if (suku > 3) akhiran = "type1404"; else if (suku > 2) akhiran = "type0403"; else akhiran = "type000N"; }
-//    else if (ends("ainyatah")) { if (suku > 3) akhiran = "type0346"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-//    else if (ends("inyatah")) { if (suku > 4) akhiran = "type1347"; else if (suku > 3) akhiran = "type0346"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("ainyapun")) { if (suku > 3) akhiran = "type0336"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("inyapun")) { if (suku > 4) akhiran = "type1337"; else if (suku > 3) akhiran = "type0336"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("ainyalah")) { if (suku > 3) akhiran = "type0326"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("inyalah")) { if (suku > 4) akhiran = "type1327"; else if (suku > 3) akhiran = "type0326"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("ainyakah")) { if (suku > 3) akhiran = "type0316"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("inyakah")) { if (suku > 4) akhiran = "type1317"; else if (suku > 3) akhiran = "type0316"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("ainya")) { if (suku > 2) akhiran = "type0303"; else akhiran = "type000N"; }
-    else if (ends("inya")) { if (suku > 3) akhiran = "type1304"; else if (suku > 2) akhiran = "type0303"; else akhiran = "type000N"; }
-//    else if (ends("aimutah")) { if (suku > 3) akhiran = "type0245"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-//    else if (ends("imutah")) { if (suku > 4) akhiran = "type1246"; else if (suku > 3) akhiran = "type0245"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("aimupun")) { if (suku > 3) akhiran = "type0235"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("imupun")) { if (suku > 4) akhiran = "type1236"; else if (suku > 3) akhiran = "type0235"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("aimulah")) { if (suku > 3) akhiran = "type0225"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("imulah")) { if (suku > 4) akhiran = "type1226"; else if (suku > 3) akhiran = "type0225"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("aimukah")) { if (suku > 3) akhiran = "type0215"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("imukah")) { if (suku > 4) akhiran = "type1216"; else if (suku > 3) akhiran = "type0215"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("aimu")) { if (suku > 2) akhiran = "type0202"; else akhiran = "type000N"; }
-    else if (ends("imu")) { if (suku > 3) akhiran = "type1203"; else if (suku > 2) akhiran = "type0202"; else akhiran = "type000N"; }
-//    else if (ends("aikutah")) { if (suku > 3) akhiran = "type0145"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-//    else if (ends("ikutah")) { if (suku > 4) akhiran = "type1146"; else if (suku > 3) akhiran = "type0145"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("aikupun")) { if (suku > 3) akhiran = "type0135"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("ikupun")) { if (suku > 4) akhiran = "type1136"; else if (suku > 3) akhiran = "type0135"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("aikulah")) { if (suku > 3) akhiran = "type0125"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("ikulah")) { if (suku > 4) akhiran = "type1126"; else if (suku > 3) akhiran = "type0125"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("aikulah")) { if (suku > 3) akhiran = "type0125"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("ikulah")) { if (suku > 4) akhiran = "type1126"; else if (suku > 3) akhiran = "type0125"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("aiku")) { if (suku > 2) akhiran = "type0102"; else akhiran = "type000N"; }
-    else if (ends("iku")) { if (suku > 3) akhiran = "type1103"; else if (suku > 2) akhiran = "type0102"; else akhiran = "type000N"; }
-    //else if (ends("aitah")) { if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    //else if (ends("itah")) { if (suku > 3) akhiran = "type1044"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("aipun")) { if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("ipun")) { if (suku > 3) akhiran = "type1034"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("ailah")) { if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("ilah")) { if (suku > 3) akhiran = "type1024"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("aikah")) { if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("ikah")) { if (suku > 3) akhiran = "type1014"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("ai")) akhiran = "type000N"; //diftong
-    else if (ends("i")) { if (suku > 2) akhiran = "type1001"; else akhiran = "type000N"; }
-
-    //else if (ends("-nyatah")) { if (suku > 3) akhiran = "type0647"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("-nyapun")) { if (suku > 3) akhiran = "type0637"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("-nyalah")) { if (suku > 3) akhiran = "type0627"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("-nyakah")) { if (suku > 3) akhiran = "type0617"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("-nya")) { if (suku > 2) akhiran = "type0604"; else akhiran = "type000N"; }
-    //else if (ends("-mutah")) { if (suku > 3) akhiran = "type0546"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("-mupun")) { if (suku > 3) akhiran = "type0536"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("-mulah")) { if (suku > 3) akhiran = "type0526"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("-mukah")) { if (suku > 3) akhiran = "type0516"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("-mu")) { if (suku > 2) akhiran = "type0503"; else akhiran = "type000N"; }
-    //else if (ends("-kutah")) { if (suku > 3) akhiran = "type0446"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("-kupun")) { if (suku > 3) akhiran = "type0436"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("-kulah")) { if (suku > 3) akhiran = "type0426"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("-kukah")) { if (suku > 3) akhiran = "type0416"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("-ku")) { if (suku > 2) akhiran = "type0403"; else akhiran = "type000N"; }
-    //else if (ends("nyatah")) { if (suku > 3) akhiran = "type0346"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("nyapun")) { if (suku > 3) akhiran = "type0336"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("nyalah")) { if (suku > 3) akhiran = "type0326"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("nyakah")) { if (suku > 3) akhiran = "type0316"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("nya")) { if (suku > 2) akhiran = "type0303"; else akhiran = "type000N"; }
-    //else if (ends("mutah")) { if (suku > 3) akhiran = "type0245"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("mupun")) { if (suku > 3) akhiran = "type0235"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("mulah")) { if (suku > 3) akhiran = "type0225"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("mukah")) { if (suku > 3) akhiran = "type0215"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("mu")) { if (suku > 2) akhiran = "type0202"; else akhiran = "type000N"; }
-    //else if (ends("kutah")) { if (suku > 3) akhiran = "type0145"; else if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
-    else if (ends("kupun")) { if (suku > 3) akhiran = "type0135"; else if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("kulah")) { if (suku > 3) akhiran = "type0125"; else if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("kukah")) { if (suku > 3) akhiran = "type0115"; else if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }
-    else if (ends("ku")) { if (suku > 2) akhiran = "type0102"; else akhiran = "type000N"; }
-    
-    else if (ends("tah")) { if (suku > 2) akhiran = "type0043"; else akhiran = "type000N"; }
-    else if (ends("pun")) { if (suku > 2) akhiran = "type0033"; else akhiran = "type000N"; }
-    else if (ends("lah")) { if (suku > 2) akhiran = "type0023"; else akhiran = "type000N"; }  
-    else if (ends("kah")) { if (suku > 2) akhiran = "type0013"; else akhiran = "type000N"; }
+    int akhiran = AffixCode.AKHIRAN_NONE;
+    int suku = sukukata(b, awal, i);
+    int r = aturan.akhiranTrie.longestSuffix(b, k0, getResultLength());
+    if (r >= 0)
+      akhiran = AffixRules.kode(aturan.akhiranKode[r], aturan.akhiranBatas[r], suku, AffixCode.AKHIRAN_NONE);
     
     akhiran = cek(akhiran);
     j = k-panjang;
@@ -887,178 +846,48 @@ class Indo
     return akhiran;
   }
   
-  private final String cek(String s) {
-    String akhiran = s;
-    kai = false; kmn = false; klp = false;
-    switch(akhiran.charAt(4)){
-        case '0': kanani = ""; break;
-        case '1': kanani = "i"; break;
-        case '2': kanani = "an"; break;
-        case '3': kanani = "kan"; break;
-        case '4': kanani = "wi"; break;
-        case '5': kanani = "wan"; break;
-//         case '6': kanani = "wati"; sukukata--; break;
-    }
-    switch(akhiran.charAt(5)){
-        case '0': kumunya = ""; break;
-        case '1': kumunya = "ku"; break; //kecuali: kuku (berkuku), laku (berlaku), pangku (pangku), suku (sesuku)
-        case '2': kumunya = "mu"; break;
-        case '3': kumunya = "nya"; break;
-        case '4': kumunya = "-ku"; falsedash = true; break;
-        case '5': kumunya = "-mu"; falsedash = true; break;
-        case '6': kumunya = "-nya"; falsedash = true; break;
-    }
-    switch(akhiran.charAt(6)){
-        case '0': kahlahpun = ""; break;
-        case '1': kahlahpun = "kah"; break; //kecuali: langkah (melangkah), rekah (merekah)
-        case '2': kahlahpun = "lah"; break; //kecuali: belah (berbelah), jumlah (berjumlah), lelah (berlelah), salah (bersalah)
-        case '3': kahlahpun = "pun"; break;
-        case '4': kahlahpun = "tah"; break;
-    }
-    switch(akhiran.charAt(7)){
-        case 'N': panjang = 0; break;
-        case '1': panjang = 1; break;
-        case '2': panjang = 2; break;
-        case '3': panjang = 3; break;
-        case '4': panjang = 4; break;
-        case '5': panjang = 5; break;
-        case '6': panjang = 6; break;
-        case '7': panjang = 7; break;
-        case '8': panjang = 8; break;
-        case '9': panjang = 9; break;
-        case '0': panjang = 10; break;
-    }
-    if (kanani != "") kai = true;
-    if (kumunya != "") kmn = true;
-    if (kahlahpun != "") klp = true;
+  private final int cek(int akhiran) {
+    kanani = AffixCode.kanani(akhiran); //i, an, kan, wi, wan (wati tidak dipakai)
+    kumunya = AffixCode.kumunya(akhiran); //kecuali: kuku (berkuku), laku (berlaku), pangku (pangku), suku (sesuku)
+    kahlahpun = AffixCode.kahlahpun(akhiran); //kecuali: langkah (melangkah), rekah (merekah), belah (berbelah), jumlah (berjumlah), lelah (berlelah), salah (bersalah)
+    if (kumunya >= AffixCode.DASH_KU) falsedash = true; //-ku, -mu, -nya
+    panjang = AffixCode.panjang(akhiran);
+    kai = kanani != 0;
+    kmn = kumunya != 0;
+    klp = kahlahpun != 0;
     return akhiran;
   }
-//step2() untuk akhiran dobel LV7 (Jumlah=36) & LV6 (Jumlah=12). 
-//step3() untuk akhiran dobel LV5 (Jumlah=12) & LV4 (Jumlah=12)
-  private final void akhiran() {
-    vok = 0;//reset
-    //   if (k == k0) return; /* For Bug 1 */
-    boolean t=false;
-    String sufiks = berakhiran();
-    if(sufiks.charAt(7) != 0) {
-      ends (sufiks);
-      t = true;
-    }
-    
-    if (t==true) {
-      k = j;
-      if (m() > 2) {
-        vok -= sukukata (sufiks);
-        awalan();
-      }
-    } else {
-      vok = 0;//reset
-    }
-  }
   
 //step5() untuk akhiran dobel LV4 dan LV3
-  public final String berawalan() {
+  /* panjang awalan menurut varian 0..6: per, pe, pem, pen, peny, peng, penge */
+  private static final int[] PANJANG_AWALAN = { 3, 2, 3, 3, 4, 4, 5 };
+  
+  public final int berawalan() {
     vok = 0;//reset
-    String awalan = "type0N";
-    Indo shadow = this;
-    int suku = sukukata(shadow.toString());
-    
-    if (shadow.starts("berke")) { if (suku > 3) awalan = "type18"; else if (suku > 2) awalan = "type10"; else awalan = "type0N"; } 
-    else if (shadow.starts("berse")) { if (suku > 3) awalan = "type19"; else if (suku > 2) awalan = "type10"; else awalan = "type0N"; } 
-    else if (shadow.starts("ber")) { if (suku > 2) awalan = "type10"; else awalan = "type0N"; } 
-//    else if (shadow.starts("be")) { if (suku > 2) awalan = "type11"; else awalan = "type0N"; } 
-    else if (shadow.starts("ter")) { if (suku > 2) awalan = "type20"; else awalan = "type0N"; } 
-//    else if (shadow.starts("te")) { if (suku > 2) awalan = "type21"; else awalan = "type0N"; } 
-    else if (shadow.starts("penter")) { if (suku > 3) awalan = "type39"; else if (suku > 2) awalan = "type33"; else awalan = "type0N"; } 
-    else if (shadow.starts("pember")) { if (suku > 3) awalan = "type37"; else if (suku > 2) awalan = "type32"; else awalan = "type0N"; } 
-    else if (shadow.starts("penge")) { if (suku > 3) awalan = "type36"; else if (suku > 2) awalan = "type35"; else awalan = "type0N"; }  
-    else if (shadow.starts("peng")) { if (suku > 2) awalan = "type35"; else awalan = "type0N"; } 
-    else if (shadow.starts("peny")) { if (suku > 2) awalan = "type34"; else awalan = "type0N"; } 
-    else if (shadow.starts("pen")) { if (suku > 2) awalan = "type33"; else awalan = "type0N"; } 
-    else if (shadow.starts("pem")) { if (suku > 2) awalan = "type32"; else awalan = "type0N"; } 
-    else if (shadow.starts("per")) { if (suku > 2) awalan = "type30"; else awalan = "type0N"; } 
-    else if (shadow.starts("pe")) { if (suku > 2) awalan = "type31"; else awalan = "type0N"; } 
-    else if (shadow.starts("menter")) { if (suku > 3) awalan = "type49"; else if (suku > 2) awalan = "type43"; else awalan = "type0N"; } 
-    else if (shadow.starts("memper")) { if (suku > 3) awalan = "type48"; else if (suku > 2) awalan = "type42"; else awalan = "type0N"; } 
-    else if (shadow.starts("member")) { if (suku > 3) awalan = "type47"; else if (suku > 2) awalan = "type42"; else awalan = "type0N"; } 
-    else if (shadow.starts("menge")) { if (suku > 3) awalan = "type46"; else if (suku > 2) awalan = "type45"; else awalan = "type0N"; } 
-    else if (shadow.starts("meng")) { if (suku > 2) awalan = "type45"; else awalan = "type0N"; } 
-    else if (shadow.starts("meny")) { if (suku > 2) awalan = "type44"; else awalan = "type0N"; } 
-    else if (shadow.starts("men")) { if (suku > 2) awalan = "type43"; else awalan = "type0N"; } 
-    else if (shadow.starts("mem")) { if (suku > 2) awalan = "type42"; else awalan = "type0N"; } 
-//    else if (shadow.starts("mer")) { if (suku > 2) awalan = "type40"; else awalan = "type0N"; } 
-    else if (shadow.starts("me")) { if (suku > 2) awalan = "type41"; else awalan = "type0N"; } 
-    else if (shadow.starts("diter")) { if (suku > 3) awalan = "type59"; else if (suku > 2) awalan = "type51"; else awalan = "type0N"; } 
-    else if (shadow.starts("diper")) { if (suku > 3) awalan = "type58"; else if (suku > 2) awalan = "type51"; else awalan = "type0N"; } 
-    else if (shadow.starts("diber")) { if (suku > 3) awalan = "type57"; else if (suku > 2) awalan = "type51"; else awalan = "type0N"; } 
-    else if (shadow.starts("dike")) { if (suku > 3) awalan = "type55"; else if (suku > 2) awalan = "type51"; else awalan = "type0N"; } 
-    else if (shadow.starts("di")) { if (suku > 2) awalan = "type51"; else awalan = "type0N"; } 
-    else if (shadow.starts("seter")) { if (suku > 3) awalan = "type69"; else if (suku > 2) awalan = "type43"; else awalan = "type0N"; } 
-    else if (shadow.starts("seper")) { if (suku > 3) awalan = "type68"; else if (suku > 2) awalan = "type42"; else awalan = "type0N"; } 
-    else if (shadow.starts("seber")) { if (suku > 3) awalan = "type67"; else if (suku > 2) awalan = "type42"; else awalan = "type0N"; } 
-    else if (shadow.starts("se")) { if (suku > 2) awalan = "type61"; else awalan = "type0N"; } 
-    else if (shadow.starts("keter")) { if (suku > 3) awalan = "type79"; else if (suku > 2) awalan = "type43"; else awalan = "type0N"; } 
-    else if (shadow.starts("keper")) { if (suku > 3) awalan = "type78"; else if (suku > 2) awalan = "type42"; else awalan = "type0N"; } 
-    else if (shadow.starts("keber")) { if (suku > 3) awalan = "type77"; else if (suku > 2) awalan = "type42"; else awalan = "type0N"; } 
-    else if (shadow.starts("ke-")) { if (suku > 2) awalan = "type70"; else awalan = "type0N"; } //ke-Allahan
-    else if (shadow.starts("ke")) { if (suku > 2) awalan = "type71"; else awalan = "type0N"; } 
-    else if (shadow.starts("kauter")) { if (suku > 3) awalan = "type89"; else if (suku > 2) awalan = "type80"; else awalan = "type0N"; } 
-    else if (shadow.starts("kauper")) { if (suku > 3) awalan = "type88"; else if (suku > 2) awalan = "type80"; else awalan = "type0N"; } 
-    else if (shadow.starts("kauber")) { if (suku > 3) awalan = "type87"; else if (suku > 2) awalan = "type80"; else awalan = "type0N"; } 
-    else if (shadow.starts("kau")) { if (suku > 2) awalan = "type80"; else awalan = "type0N"; } 
-    else if (shadow.starts("kuter")) { if (suku > 3) awalan = "type99"; else if (suku > 2) awalan = "type91"; else awalan = "type0N"; } 
-    else if (shadow.starts("kuper")) { if (suku > 3) awalan = "type98"; else if (suku > 2) awalan = "type91"; else awalan = "type0N"; } 
-    else if (shadow.starts("kuber")) { if (suku > 3) awalan = "type97"; else if (suku > 2) awalan = "type91"; else awalan = "type0N"; } 
-    else if (shadow.starts("ku")) { if (suku > 2) awalan = "type91"; else awalan = "type0N"; } 
+    int awalan = AffixCode.AWALAN_NONE;
+    int suku = sukukata(b, awal, i);
+    int r = aturan.awalanTrie.longestPrefix(b, 0, i);
+    if (r >= 0) {
+      awal0 = aturan.awalanPanjang[r];
+      awalan = AffixRules.kode(aturan.awalanKode[r], aturan.awalanBatas[r], suku, AffixCode.AWALAN_NONE);
+    }
     
-    char empat = awalan.charAt(4);
-    char lima = awalan.charAt(5);
-    switch(lima){
-        case 'N': panjang0 = 0; awal0 = 0; break;
-        case '0': panjang0 = 3; break;
-        case '1': panjang0 = 2; break;
-        case '2': panjang0 = 3; break;
-        case '3': panjang0 = 3; break;
-        case '4': panjang0 = 4; break;
-        case '5': panjang0 = 4; break;
-        case '6': panjang0 = 5; break;
-        case '7': if (empat == '1' || empat == '5' || empat == '6' || empat == '7' || empat == '9') panjang0 = 5; 
-                  else panjang0 = 6; break;
-        case '8': if (empat == '1' || empat == '5' || empat == '6' || empat == '7' || empat == '9') panjang0 = 5; 
-                  else panjang0 = 6; break;
-        case '9': if (empat == '1' || empat == '5' || empat == '6' || empat == '7' || empat == '9') panjang0 = 5; 
-                  else panjang0 = 6; break;
+    int empat = AffixCode.kelas(awalan);
+    int lima = AffixCode.varian(awalan);
+    if (lima == AffixCode.NONE) { 
+        panjang0 = 0; awal0 = 0; 
+    } else if (lima <= AffixCode.ENGE) {
+        panjang0 = PANJANG_AWALAN[lima];
+    } else { //awalan ganda, i.e. member, diper, keter
+        if (empat == 1 || empat == 5 || empat == 6 || empat == 7 || empat == 9) panjang0 = 5; 
+        else panjang0 = 6;
     }
-    switch(empat){
-        case 'N': awal0 = 0; break; 
-        case '0': break;
-        case '1': break; //ber
-        case '2': break; //ter
-        case '3': pen = true; 
-                if (lima=='N') penge = ""; 
-                else if (lima=='0') penge = "per"; 
-                else if (lima=='1') penge = "pe"; 
-                else if (lima=='2') penge = "pem"; 
-                else if (lima=='3') penge = "pen"; 
-                else if (lima=='4') penge = "peny"; 
-                else if (lima=='5') penge = "peng"; 
-                else if (lima=='6') penge = "penge";
-                break; //per
-        case '4': men = true; 
-                if (lima=='N') penge = ""; 
-                else if (lima=='0') menge = "mer"; 
-                else if (lima=='1') menge = "me"; 
-                else if (lima=='2') menge = "mem"; 
-                else if (lima=='3') menge = "men"; 
-                else if (lima=='4') menge = "meny"; 
-                else if (lima=='5') menge = "meng"; 
-                else if (lima=='6') menge = "menge";
-                break; //mer
-        case '5': break; //di
-        case '6': break; //se
-        case '7': break; //ke-/ke
-        case '8': break; //kau/ku
-        case '9': break;
+    if (empat == 3) { //per
+        pen = true;
+        if (lima <= AffixCode.ENGE) penge = lima;
+    } else if (empat == 4) { //mer
+        men = true;
+        if (lima <= AffixCode.ENGE) menge = lima;
     }
     return awalan;
 //    if (k == k0) return; /* for Bug 1 */
@@ -1085,23 +914,6 @@ class Indo
       step6();
     }/**/
   }  
-  private final void awalan() {
-    vok = 0;//reset
-    boolean t=false;
-    String prefiks = berawalan();
-    if(prefiks.length() > 0) {
-      starts (prefiks);
-      t = true;
-    }
-    
-    if (t==true && m() > 1) {
-//        vok -= sukukata (sufiks);
-//        awalan();
-      awal = awal0;
-    } else {
-      vok = 0;//reset
-    }
-  }
   
   /**
    * Stem a word provided as a String.  Returns the result as a String.
@@ -1133,17 +945,167 @@ class Indo
   /** Stem a word contained in a portion of a char[] array.  Returns
     * true if the stemming process resulted in a word different from
     * the input.  You can retrieve the result with
-    * getResultLength()/getResultBuffer() or toString().
+    * getResultLength()/getResultBuffer() or toString().  Once the
+    * internal buffer has grown to the longest word seen, this works
+    * entirely on index ranges of that buffer and allocates nothing.
     */
   public boolean stem(char[] wordBuffer, int offset, int wordLen) {
+    if (metrics == null)
+      return stemKata(wordBuffer, offset, wordLen);
+    long t0 = metrics.isTimed() ? System.nanoTime() : 0;
+    boolean changed = stemKata(wordBuffer, offset, wordLen);
+    metrics.stemmed(changed, metrics.isTimed() ? System.nanoTime() - t0 : 0);
+    return changed;
+  }
+  
+  private boolean stemKata(char[] wordBuffer, int offset, int wordLen) {
     reset();
     if (b.length < wordLen) {
       char[] new_b = new char[wordLen + EXTRA];
       b = new_b;
     }
+    int hit = -1;
+    if (table != null) {
+      hit = table.get(wordBuffer, offset, wordLen, b);
+      if (hit >= 0 && metrics != null) metrics.tableHit();
+    }
+    if (hit < 0 && cache != null) {
+      hit = cache.get(wordBuffer, offset, wordLen, b);
+      if (metrics != null) metrics.cacheLookup(hit >= 0);
+    }
+    if (hit >= 0) {
+      i = hit >>> 1;
+      k = i - 1;
+      dirty = (hit & 1) != 0;
+      return dirty;
+    }
+    System.arraycopy(wordBuffer, offset, b, 0, wordLen);
+    i = wordLen;
+    boolean changed = stem(0);
+    if (cache != null)
+      cache.put(wordBuffer, offset, wordLen, b, awal, i-awal, changed);
+    return changed;
+  }
+  
+  /** Stem a word contained in a portion of a char[] array like
+    * stem(char[], int, int), and describe in a what was removed to get
+    * there: the prefix, the suffix, the clitic and the particle, and how
+    * a hyphenated word was resolved.  The word is always run through the
+    * rules, since a StemTable or StemCache keeps only the stem; an
+    * installed RootLexicon is consulted as usual.  Nothing is allocated
+    * once a has grown to the longest word seen.
+    */
+  public boolean analyze(char[] wordBuffer, int offset, int wordLen, StemAnalysis a) {
+    reset();
+    if (b.length < wordLen)
+      b = new char[wordLen + EXTRA];
     System.arraycopy(wordBuffer, offset, b, 0, wordLen);
     i = wordLen;
-    return stem(0);
+    boolean changed = stem(0);
+    boolean akhiran = ujung > i;
+    a.set(b, awal, i-awal, changed,
+          akhiran && kanani != 0 ? kanani : AffixCode.kanani(akhiranUlang),
+          akhiran && kumunya != 0 ? kumunya : AffixCode.kumunya(akhiranUlang),
+          akhiran && kahlahpun != 0 ? kahlahpun : AffixCode.kahlahpun(akhiranUlang),
+          jenisUlang);
+    /* the prefix is what was cut in front of the root, with a nasal the
+       root gave back its own letter for (memukul); when that holds the
+       first half of a reduplication, the prefix of that half */
+    if (awal == 0 || Reduplikasi.tanda(b, 0, awal) >= 0) {
+      a.setPrefix(awalanUlang);
+    } else {
+      int p = awal;
+      if (awal < wordLen && wordBuffer[offset+awal] != b[awal])
+        p++;
+      a.setPrefix(wordBuffer, offset, p);
+    }
+    return changed;
+  }
+  
+  /** Stem count words held in one char[], word z being
+    * text[offsets[z]..offsets[z]+lengths[z]-1], and pack the stems into
+    * out from outStart on, recording where each went in outOffsets and
+    * outLengths.  A stem is never longer than its word, so out needs no
+    * more room than the words themselves.  Returns the offset in out
+    * just past the last stem.
+    */
+  public int stemAll(char[] text, int[] offsets, int[] lengths, int count,
+                     char[] out, int outStart, int[] outOffsets, int[] outLengths) {
+    int o = outStart;
+    for (int z = 0; z < count; z++) {
+      int len = lengths[z];
+      char[] from = text;
+      int at = offsets[z];
+      if (stem(text, at, len)) {
+        from = b;
+        at = awal;
+        len = i - awal;
+      }
+      System.arraycopy(from, at, out, o, len);
+      outOffsets[z] = o;
+      outLengths[z] = len;
+      o += len;
+    }
+    return o;
+  }
+  
+  /** Stem every word in tokens, from its position to its limit, where
+    * words are separated by delimiter, and put the stems into out
+    * separated the same way, so that the n-th stem in out belongs to the
+    * n-th word in tokens, empty words included.  Both buffers are
+    * advanced past what was read or written.  out needs no more room than
+    * tokens has remaining.  Returns the number of words.
+    */
+  public int stemAll(CharBuffer tokens, char delimiter, CharBuffer out) {
+    char[] word = tokens.hasArray() ? tokens.array() : null;
+    int base = tokens.hasArray() ? tokens.arrayOffset() : 0;
+    char[] scratch = null;
+    int n = 0;
+    int p = tokens.position();
+    int end = tokens.limit();
+    if (p == end)
+      return 0;
+    while (true) {
+      int q = p;
+      while (q < end && tokens.get(q) != delimiter)
+        q++;
+      int len = q - p;
+      if (word != null) {
+        stem(word, base + p, len);
+      } else {
+        if (scratch == null || scratch.length < len)
+          scratch = new char[Math.max(len, 16)];
+        for (int z = 0; z < len; z++)
+          scratch[z] = tokens.get(p + z);
+        stem(scratch, 0, len);
+      }
+      out.put(b, awal, i - awal);
+      n++;
+      if (q == end)
+        break;
+      out.put(delimiter);
+      p = q + 1;
+    }
+    tokens.position(end);
+    return n;
+  }
+  
+  /* load() and reduplikasiSaja() let IndoBenchmark time the stages of
+     stem(int) one at a time: load() leaves the word as stem(int) has it
+     just before it starts on the rules. */
+  void load(char[] word, int offset, int len) {
+    reset();
+    if (b.length < len)
+      b = new char[len + EXTRA];
+    System.arraycopy(word, offset, b, 0, len);
+    i = len;
+    k = i - 1;
+    k0 = 0;
+    aturan = AffixRules.current();
+  }
+  
+  void reduplikasiSaja() {
+    reduplikasi();
   }
   
   /** Stem the word placed into the Stemmer buffer through calls to add().
@@ -1152,102 +1114,47 @@ class Indo
     * getResultLength()/getResultBuffer() or toString().
     */
   public boolean stem() {
-    return stem(0);
+    if (metrics == null)
+      return stem(0);
+    long t0 = metrics.isTimed() ? System.nanoTime() : 0;
+    boolean changed = stem(0);
+    metrics.stemmed(changed, metrics.isTimed() ? System.nanoTime() - t0 : 0);
+    return changed;
   }
   
   public boolean stem(int i0) {
+    int n = i;
     k = i - 1;
     k0 = i0;
-    if (k > k0+1) {
-        berakhiran(); if (sukukata(this.toString()) == 1) System.out.print (this.toString()+ "   ");
+    berprofil = false;
+    aturan = AffixRules.current();
+    if (k > k0+1 && lexicon != null && kamus()) {
+      /* kata dasarnya ada di leksikon */
+      if (metrics != null) metrics.lexiconHit();
+    } else if (k > k0+1) {
+        if (diagnostics != StemDiagnostics.NONE && sukukata(b, awal, i) == 1) diagnostics.monosyllabic(b, awal, i-awal);
 //         berakhiran(); if (sukukata(this.toString()) == 1) System.out.println (this.toString());
 //         berakhiran(); if (sukukata(this.toString()) == 3) System.out.print (this.toString()+ "   ");
 //         berakhiran(); if (sukukata(this.toString()) > 3) System.out.println (this.toString());
-      reduplikasi();
-    } else 
+      if (tanpaImbuhan()) {
+        if (metrics != null) metrics.affixes(AffixCode.AKHIRAN_NONE, AffixCode.AWALAN_NONE);
+      } else {
+        reduplikasi();
+      }
+    }
+    ujung = i;
+    i = k+1;
     // Also, a word is considered dirty if we lopped off letters
     // Thanks to Ifigenia Vairelles for pointing this out.
-    if (i != k+1)
+    if (i-awal != n)
       dirty = true;
-    i = k+1;
     return dirty;
   }
   
-  /** Test program for demonstrating the Stemmer.  It reads a file and
-    * stems each word, writing the result to standard out.
-    * Usage: Stemmer file-name
+  /** Stems files or standard input; see IndoStem for the options.
+    * Usage: Indo [-t] [-o output] [file ...]
     */
-  public static void main(String[] args) {
-    Indo s = new Indo();
-    
-    try{
-      BufferedReader fi = new BufferedReader(new InputStreamReader(System.in));
-      System.out.print("Please enter the file name to create : ");
-      String file_name = fi.readLine();
-      File file = new File(file_name);
-      boolean exist = file.createNewFile();
-      if (!exist)//IF 1
-      {
-        System.out.println("File already exists.");
-        System.exit(0);
-      }
-      else//ELSE 1
-      {
-        FileWriter fstream= new FileWriter(file_name);
-        BufferedWriter out = new BufferedWriter(fstream);
-        for (int i = 0; i < args.length; i++) {
-          try {
-            InputStream in = new FileInputStream(args[i]);
-            byte[] buffer = new byte[1024];
-            int bufferLen, offset, ch;
-            
-            bufferLen = in.read(buffer);
-            offset = 0;
-            s.reset();
-            
-            while(true) {
-              if (offset < bufferLen)
-                ch = buffer[offset++];
-              else {
-                bufferLen = in.read(buffer);
-                offset = 0;
-                if (bufferLen < 0)
-                  ch = -1;
-                else
-                  ch = buffer[offset++];
-              }
-              
-              //get word (separated by -)
-              if (Character.isLetter((char) ch)||(char) ch == '-') {
-                s.add(Character.toLowerCase((char) ch));
-              }
-              //stem word
-              else {
-                stringtemp = s;
-                s.stem();
-                out.write(s.toString());
-                s.reset();
-                if (ch < 0)
-                  break;
-                else {//DELETE NON-CHARACTERS SUCH AS (,),,,.,;,:,?,!,etc
-                  if (ch!='('&&ch!=')')
-                    out.write((char) ch);
-                }
-              }
-            }
-            
-            in.close();
-          }
-          catch (IOException e) {
-            System.out.println("error reading " + args[i]);
-          }
-        }
-        //Close the output stream
-        out.close();
-      }
-    }//END ELSE 1
-    catch (IOException e){//Catch exception if any
-      System.err.println("Error: " + e.getMessage());
-    }
+  public static void main(String[] args) throws IOException {
+    IndoStem.main(args);
   }
 }
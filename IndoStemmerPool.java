@@ -0,0 +1,113 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Thread-safe access to the Indo stemmer.
+ *
+ * Indo is cheap to reuse but not safe to share, so this class keeps
+ * engines apart instead of locking one.  The static methods use one
+ * engine per thread, held in a ThreadLocal, and need no synchronization
+ * at all.  An IndoStemmerPool instance instead lends engines out of a
+ * bounded set of idle ones, which suits executors whose threads come and
+ * go, such as virtual threads, where a ThreadLocal engine would be
+ * rebuilt for every task.
+ */
+public final class IndoStemmerPool
+{
+  private static final ThreadLocal<Indo> LOCAL = new ThreadLocal<Indo>() {
+    @Override
+    protected Indo initialValue() {
+      return new Indo();
+    }
+  };
+
+  private final ArrayBlockingQueue<Indo> idle;
+
+  /** Creates a pool that keeps at most maxIdle engines between uses. */
+  public IndoStemmerPool(int maxIdle) {
+    if (maxIdle < 1)
+      throw new IllegalArgumentException("maxIdle must be positive: " + maxIdle);
+    idle = new ArrayBlockingQueue<Indo>(maxIdle);
+  }
+
+  /** Creates a pool sized to the number of available processors. */
+  public IndoStemmerPool() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Takes an engine out of the pool, creating one if none is idle.  The
+   * caller has it to itself until it is handed back with release().
+   */
+  Indo borrow() {
+    Indo s = idle.poll();
+    return s != null ? s : new Indo();
+  }
+
+  /** Returns an engine to the pool; it is dropped if the pool is full. */
+  void release(Indo s) {
+    s.reset();
+    idle.offer(s);
+  }
+
+  /** Stems word with an engine borrowed from this pool. */
+  public String stem(CharSequence word) {
+    Indo s = borrow();
+    try {
+      return stem(s, word);
+    } finally {
+      release(s);
+    }
+  }
+
+  /** Returns the calling thread's own engine. */
+  static Indo local() {
+    return LOCAL.get();
+  }
+
+  /** Stems word with the calling thread's own engine. */
+  public static String stemLocal(CharSequence word) {
+    return stem(LOCAL.get(), word);
+  }
+
+  /**
+   * Stems buf[offset..offset+len-1] in place with the calling thread's
+   * own engine and returns the length of the stem, which then starts at
+   * offset.  A stem is never longer than its word.
+   */
+  public static int stemLocal(char[] buf, int offset, int len) {
+    Indo s = LOCAL.get();
+    if (!s.stem(buf, offset, len))
+      return len;
+    int n = s.getResultLength();
+    System.arraycopy(s.getResultBuffer(), s.getResultOffset(), buf, offset, n);
+    return n;
+  }
+
+  private static String stem(Indo s, CharSequence word) {
+    s.reset();
+    for (int o = 0; o < word.length(); o++)
+      s.add(word.charAt(o));
+    if (!s.stem())
+      return word.toString();
+    return new String(s.getResultBuffer(), s.getResultOffset(), s.getResultLength());
+  }
+}
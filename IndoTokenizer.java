@@ -0,0 +1,200 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Splits text into words, lower-cases them and stems them in a single
+ * pass, reporting each stem together with where its word lies in the
+ * source text.
+ *
+ * Usage:
+ *
+ *   IndoTokenizer t = new IndoTokenizer();
+ *   t.reset(text);
+ *   while (t.next())
+ *     use(t.termBuffer(), t.termOffset(), t.termLength(), t.startOffset(), t.endOffset());
+ *
+ * A word is a run of letters, which may be joined by single hyphens:
+ * "ahli-ahli", "berabad-abad" and "ke-Allahan" are one word each, as
+ * reduplikasi() expects, but a hyphen that does not stand between two
+ * letters, as in "-nya", "abad-" or "a--b", separates words and is not
+ * part of either.  The Unicode hyphens U+2010 and U+2011 count as '-'.
+ * StemmingWriter and IndoAnalyzer keep the definition of the original
+ * Indo.main instead, any run of letters and hyphens, so that their output
+ * stays what it was: there "-nya" is a word of its own, "buku--nya"
+ * stems to "buku-", and "abad-" to nothing at all.
+ * Letters are lower-cased as they are read, with a fast path for ASCII,
+ * into a buffer that is reused for every word, and that buffer is handed
+ * straight to Indo.stem(char[], int, int).
+ *
+ * An IndoTokenizer and its engine must not be used by two threads at
+ * once.
+ */
+
+public final class IndoTokenizer
+{
+  private final Indo stemmer;
+  private CharSequence text;
+  private Reader reader;
+  private final char[] in = new char[8192];
+  private int pos, limit;
+  private long offset;       /* source offset of in[0], or of text[0] */
+  private char[] word = new char[64];
+  private int length;
+  private long start, end;
+  private boolean changed;
+
+  /** Creates a tokenizer with its own engine. */
+  public IndoTokenizer() {
+    this(new Indo());
+  }
+
+  /**
+   * Creates a tokenizer using the given engine, for instance one with a
+   * cache or a lexicon installed.
+   */
+  public IndoTokenizer(Indo stemmer) {
+    this.stemmer = stemmer;
+  }
+
+  /** Starts on text. */
+  public void reset(CharSequence text) {
+    this.text = text;
+    reader = null;
+    pos = 0;
+    limit = text.length();
+    offset = 0;
+  }
+
+  /** Starts on the text read from r, which is not closed. */
+  public void reset(Reader r) {
+    text = null;
+    reader = r;
+    pos = 0;
+    limit = 0;
+    offset = 0;
+  }
+
+  /**
+   * Moves to the next word and stems it.  Returns false at the end of the
+   * text.
+   */
+  public boolean next() throws IOException {
+    length = 0;
+    boolean hyphen = false;   /* a hyphen follows the letters read so far */
+    for (;;) {
+      if (pos == limit && !fill())
+        break;
+      char c = text != null ? text.charAt(pos) : in[pos];
+      char l;
+      if (c < 0x80) {
+        if (c >= 'a' && c <= 'z') l = c;
+        else if (c >= 'A' && c <= 'Z') l = (char) (c | 0x20);
+        else l = c == '-' ? '-' : 0;
+      } else if (c == '\u2010' || c == '\u2011') {
+        l = '-';
+      } else {
+        l = Character.isLetter(c) ? Character.toLowerCase(c) : 0;
+      }
+
+      if (l == '-') {
+        if (length > 0 && !hyphen) {
+          hyphen = true;
+          pos++;
+          continue;
+        }
+        if (hyphen)  /* "a--b": the word ends before the first hyphen */
+          break;
+        pos++;       /* a leading hyphen separates */
+        continue;
+      }
+      if (l == 0) {
+        if (length > 0)
+          break;
+        pos++;
+        continue;
+      }
+      if (length == 0)
+        start = offset + pos;
+      if (length + 2 > word.length) {
+        char[] w = new char[word.length*2];
+        System.arraycopy(word, 0, w, 0, length);
+        word = w;
+      }
+      if (hyphen) {
+        word[length++] = '-';
+        hyphen = false;
+      }
+      word[length++] = l;
+      end = offset + pos + 1;
+      pos++;
+    }
+    if (length == 0)
+      return false;
+    changed = stemmer.stem(word, 0, length);
+    return true;
+  }
+
+  /* Refills in from the reader; false at the end of the text. */
+  private boolean fill() throws IOException {
+    if (reader == null)
+      return false;
+    offset += limit;
+    pos = 0;
+    limit = 0;
+    int n;
+    while ((n = reader.read(in, 0, in.length)) == 0)
+      ;
+    if (n < 0)
+      return false;
+    limit = n;
+    return true;
+  }
+
+  /** Returns the buffer holding the current stem. */
+  public char[] termBuffer() {
+    return changed ? stemmer.getResultBuffer() : word;
+  }
+
+  /** Returns where the current stem starts in termBuffer(). */
+  public int termOffset() {
+    return changed ? stemmer.getResultOffset() : 0;
+  }
+
+  /** Returns the length of the current stem. */
+  public int termLength() {
+    return changed ? stemmer.getResultLength() : length;
+  }
+
+  /** Returns the current stem as a String. */
+  public String term() {
+    return new String(termBuffer(), termOffset(), termLength());
+  }
+
+  /** Tells whether the stem differs from the lower-cased word. */
+  public boolean isStemmed() { return changed; }
+
+  /** Returns the source offset of the first char of the current word. */
+  public long startOffset() { return start; }
+
+  /** Returns the source offset just past the last char of the current word. */
+  public long endOffset() { return end; }
+}
@@ -0,0 +1,225 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stems a UTF-8 file by scanning it in memory-mapped windows instead of
+ * reading it through a stream, for archive files of many gigabytes.
+ *
+ * The mapped bytes are decoded by a small UTF-8 state machine, with a
+ * fast path for ASCII.  Only the letters of words are kept, in a
+ * reusable char[] that is handed to Indo.stem(char[], int, int); in
+ * PRESERVE mode the bytes between words are copied to the output as they
+ * are, straight from the mapping.  The output is collected in a direct
+ * buffer and written to a channel.  A word or a UTF-8 sequence cut by
+ * the end of a window simply continues in the next one.
+ *
+ * The output is the same as that of a StemmingWriter in the same mode,
+ * except that a malformed byte sequence is replaced by one U+FFFD per
+ * byte.
+ */
+
+public final class MappedStemmer
+{
+  private static final byte[] REPLACEMENT = { (byte) 0xEF, (byte) 0xBF, (byte) 0xBD };
+
+  private final Indo stemmer;
+  private final StemmingWriter.Mode mode;
+  private final ByteBuffer out = ByteBuffer.allocateDirect(1 << 20);
+  private WritableByteChannel sink;
+  private char[] word = new char[64];
+  private int length;
+  private int window = 1 << 28;
+
+  /**
+   * Creates a mapped stemmer using the given engine, which must not be
+   * used by anything else at the same time.
+   */
+  public MappedStemmer(Indo stemmer, StemmingWriter.Mode mode) {
+    this.stemmer = stemmer;
+    this.mode = mode;
+  }
+
+  public int getWindowSize() { return window; }
+
+  /**
+   * Sets the number of bytes mapped at a time.  It must hold the longest
+   * UTF-8 sequence, four bytes.
+   */
+  public void setWindowSize(int bytes) {
+    if (bytes < 4)
+      throw new IllegalArgumentException("window must be at least 4 bytes: " + bytes);
+    window = bytes;
+  }
+
+  /** Stems the file to the channel, which is left open. */
+  public void stem(Path file, WritableByteChannel to) throws IOException {
+    sink = to;
+    try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = ch.size();
+      long pos = 0;
+      while (pos < size) {
+        long len = Math.min(window, size - pos);
+        MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, pos, len);
+        pos += scan(map, (int) len, pos + len == size);
+      }
+      endWord();
+      flush();
+    } finally {
+      sink = null;
+    }
+  }
+
+  /*
+   * Scans map[0..end) and returns how far it got, which is short of end
+   * only when the window ends inside a UTF-8 sequence and more follows.
+   */
+  private int scan(ByteBuffer map, int end, boolean last) throws IOException {
+    int run = 0;  /* start of the pending bytes between words */
+    int p = 0;
+    while (p < end) {
+      int c = map.get(p) & 0xFF;
+      int n = 1;
+      int cp;
+      if (c < 0x80) {
+        cp = c;
+      } else {
+        if (c >= 0xC2 && c < 0xE0) { n = 2; cp = c & 0x1F; }
+        else if (c >= 0xE0 && c < 0xF0) { n = 3; cp = c & 0x0F; }
+        else if (c >= 0xF0 && c < 0xF5) { n = 4; cp = c & 0x07; }
+        else { n = 0; cp = -1; }
+        if (n > 0 && p + n > end && !last)
+          break;
+        for (int o = 1; o < n; o++) {
+          int d = p + o < end ? map.get(p + o) & 0xFF : -1;
+          if (d < 0x80 || d > 0xBF
+              || o == 1 && (c == 0xE0 && d < 0xA0 || c == 0xED && d > 0x9F
+                            || c == 0xF0 && d < 0x90 || c == 0xF4 && d > 0x8F)) {
+            n = 0;
+            break;
+          }
+          cp = cp << 6 | d & 0x3F;
+        }
+        if (n == 0) {  /* malformed: replace one byte */
+          if (length > 0)
+            endWord();
+          if (mode == StemmingWriter.Mode.PRESERVE) {
+            copy(map, run, p);
+            put(REPLACEMENT, 3);
+          }
+          run = ++p;
+          continue;
+        }
+      }
+      if (cp < 0x10000 && StemmingWriter.isWordChar((char) cp)) {
+        if (mode == StemmingWriter.Mode.PRESERVE)
+          copy(map, run, p);
+        if (length == word.length) {
+          char[] w = new char[word.length*2];
+          System.arraycopy(word, 0, w, 0, length);
+          word = w;
+        }
+        word[length++] = Character.toLowerCase((char) cp);
+        run = p + n;
+      } else if (length > 0) {
+        endWord();
+      }
+      p += n;
+    }
+    if (mode == StemmingWriter.Mode.PRESERVE)
+      copy(map, run, p);
+    return p;
+  }
+
+  private void endWord() throws IOException {
+    if (length == 0)
+      return;
+    if (stemmer.stem(word, 0, length))
+      encode(stemmer.getResultBuffer(), stemmer.getResultOffset(), stemmer.getResultLength());
+    else
+      encode(word, 0, length);
+    if (mode == StemmingWriter.Mode.TOKENS)
+      put((byte) '\n');
+    length = 0;
+  }
+
+  /* Words hold letters of the Basic Multilingual Plane only, never surrogates. */
+  private void encode(char[] s, int off, int len) throws IOException {
+    if (out.remaining() < 3*len)
+      flush();
+    for (int o = off; o < off+len; o++) {
+      char c = s[o];
+      if (out.remaining() < 3)
+        flush();
+      if (c < 0x80) {
+        out.put((byte) c);
+      } else if (c < 0x800) {
+        out.put((byte) (0xC0 | c >> 6));
+        out.put((byte) (0x80 | c & 0x3F));
+      } else {
+        out.put((byte) (0xE0 | c >> 12));
+        out.put((byte) (0x80 | c >> 6 & 0x3F));
+        out.put((byte) (0x80 | c & 0x3F));
+      }
+    }
+  }
+
+  /* Copies map[from..to) to the output, bypassing the buffer if it is large. */
+  private void copy(ByteBuffer map, int from, int to) throws IOException {
+    if (from >= to)
+      return;
+    ByteBuffer slice = map.duplicate();
+    slice.limit(to).position(from);
+    if (to - from > out.remaining()) {
+      flush();
+      if (to - from > out.capacity()) {
+        while (slice.hasRemaining())
+          sink.write(slice);
+        return;
+      }
+    }
+    out.put(slice);
+  }
+
+  private void put(byte c) throws IOException {
+    if (!out.hasRemaining())
+      flush();
+    out.put(c);
+  }
+
+  private void put(byte[] s, int len) throws IOException {
+    if (out.remaining() < len)
+      flush();
+    out.put(s, 0, len);
+  }
+
+  private void flush() throws IOException {
+    out.flip();
+    while (out.hasRemaining())
+      sink.write(out);
+    out.clear();
+  }
+}
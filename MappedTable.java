@@ -0,0 +1,153 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The flat-file open-addressing hash table shared by RootLexicon and
+ * StemTable: the header, the slot array and the probe.  What an entry in
+ * the data area holds is up to the caller.
+ *
+ * File layout, big-endian:
+ *
+ *   header  int magic, int version, int slot count (a power of two),
+ *           int number of entries
+ *   slots   per slot: int hash, int offset of the entry in the data area
+ *           plus one (0 for an empty slot)
+ *   data    the entries
+ *
+ * A lookup probes at most every slot once, so a corrupt file whose slots
+ * are all full ends the search instead of looping.
+ */
+
+final class MappedTable
+{
+  static final int HEADER = 16;
+
+  final ByteBuffer buf;
+  final int slots;
+  final int size;
+  private final int mask;
+  private final int data;
+
+  /** Checks the header of buf; what names the kind of file in errors. */
+  MappedTable(ByteBuffer buf, int magic, int version, String what) {
+    if (buf.capacity() < HEADER || buf.getInt(0) != magic)
+      throw new IllegalArgumentException("not a " + what);
+    if (buf.getInt(4) != version)
+      throw new IllegalArgumentException("unsupported " + what + " version " + buf.getInt(4));
+    int slots = buf.getInt(8);
+    if (slots <= 0 || (slots & slots-1) != 0 || HEADER + (long) slots*8 > buf.capacity())
+      throw new IllegalArgumentException("corrupt " + what);
+    this.buf = buf;
+    this.slots = slots;
+    mask = slots - 1;
+    size = buf.getInt(12);
+    data = HEADER + slots*8;
+  }
+
+  /** Maps file read-only. */
+  static ByteBuffer map(Path file) throws IOException {
+    try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+      return ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+    }
+  }
+
+  /** Writes the whole of b to file, replacing it. */
+  static void write(ByteBuffer b, Path file) throws IOException {
+    try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+           StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      while (b.hasRemaining())
+        ch.write(b);
+    }
+  }
+
+  /** Finishes a 31*h + c hash of the chars of a key. */
+  static int mix(int h) {
+    h *= 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /**
+   * Returns the probe number, from i on, of the next slot holding hash h,
+   * or -1 once the probe reaches an empty slot or has seen every slot.
+   * Use it as
+   *   for (int i = t.next(h, 0); i >= 0; i = t.next(h, i+1))
+   *     ... t.entry(h, i) ...
+   */
+  int next(int h, int i) {
+    for (; i < slots; i++) {
+      int z = h+i & mask;
+      if (buf.getInt(HEADER + z*8 + 4) == 0)
+        return -1;
+      if (buf.getInt(HEADER + z*8) == h)
+        return i;
+    }
+    return -1;
+  }
+
+  /** Returns the position in buf of the entry in the slot of probe i for hash h. */
+  int entry(int h, int i) {
+    return data + buf.getInt(HEADER + (h+i & mask)*8 + 4) - 1;
+  }
+
+  /** Returns the position in buf of offset at of the data area. */
+  int data(int at) {
+    return data + at;
+  }
+
+  /** Returns the slot count for n entries: a power of two at least 2n. */
+  static int slotsFor(int n) {
+    int slots = 2;
+    while (slots < n * 2)
+      slots *= 2;
+    return slots;
+  }
+
+  /**
+   * Allocates a direct buffer for a file of n entries in the given slots
+   * with bytes of data, and writes the header.
+   */
+  static ByteBuffer allocate(int magic, int version, int slots, int n, long bytes, String what) {
+    bytes += HEADER + (long) slots*8;
+    if (bytes > Integer.MAX_VALUE)
+      throw new IllegalArgumentException(what + " too large");
+    ByteBuffer b = ByteBuffer.allocateDirect((int) bytes);
+    b.putInt(0, magic).putInt(4, version).putInt(8, slots).putInt(12, n);
+    return b;
+  }
+
+  /** Returns the position in b, written by allocate(), of offset at of the data area. */
+  static int data(ByteBuffer b, int at) {
+    return HEADER + b.getInt(8)*8 + at;
+  }
+
+  /** Puts an entry with hash h at offset at of the data area into a free slot of b. */
+  static void insert(ByteBuffer b, int h, int at) {
+    int mask = b.getInt(8) - 1;
+    int z = h & mask;
+    while (b.getInt(HEADER + z*8 + 4) != 0)
+      z = z+1 & mask;
+    b.putInt(HEADER + z*8, h).putInt(HEADER + z*8 + 4, at + 1);
+  }
+}
@@ -0,0 +1,106 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Recognises the reduplications (kata ulang) that the Indo stemmer can
+ * resolve by looking at the two halves of a hyphenated word alone.
+ *
+ * Everything here works on index ranges of the stemmer's own buffer: the
+ * first half is s[0..dash), the second s[dash+1..end).  Which half to drop
+ * depends only on how the halves compare, so it is decided before, and
+ * independently of, the affix analysis; the cases that do need the
+ * affixes, such as dibagi-bagikan and mengata-ngatai, are left to Indo as
+ * LAIN.
+ */
+
+final class Reduplikasi
+{
+  /** No decision from the halves alone. */
+  static final int LAIN = 0;
+  /** Drop the first half and the hyphen: ke-Allahan, berabad-abad. */
+  static final int BUANG_PERTAMA = 1;
+  /** Drop the hyphen and the second half: ahli-ahli, ambil-mengambil, ahli-ahlimu. */
+  static final int BUANG_KEDUA = 2;
+  /** As BUANG_PERTAMA, but the first half ends like the second starts, which only a typo gives. */
+  static final int SALAH_KETIK = 3;
+
+  /* How Indo resolves the LAIN cases, for StemMetrics. */
+  /** Both halves carry affixes: dibagi-bagikan, mengata-ngatai, berlain-lain. */
+  static final int IMBUHAN = 4;
+  /** The hyphen only introduces a clitic: -ku, -mu, -nya. */
+  static final int KLITIK = 5;
+  /** Anything else, such as teka-teki or bolak-balik. */
+  static final int LAINNYA = 6;
+
+  private Reduplikasi() {}
+
+  /** Returns the index of the first hyphen in s[from..to), or -1. */
+  static int tanda(char[] s, int from, int to) {
+    for (int o = from; o < to; o++)
+      if (s[o] == '-')
+        return o;
+    return -1;
+  }
+
+  /**
+   * Decides what to do with the word s[0..end) whose first hyphen is at
+   * dash, testing the patterns in the order the stemmer always has.
+   */
+  static int jenis(char[] s, int dash, int end) {
+    int ke0 = dash+1;
+    int ke2 = end-ke0;
+    if (dash == 2 && samaHuruf(s[0], 'k') && samaHuruf(s[1], 'e')) //ke-Allahan
+      return BUANG_PERTAMA;
+    if (dash == ke2 && sama(s, 0, ke0, ke2)) //ahli-ahli
+      return BUANG_KEDUA;
+    if (ke2 <= dash && cocok(s, dash-ke2, ke0, ke2)) //berabad-abad
+      return BUANG_PERTAMA;
+    if (dash <= ke2 && cocok(s, end-dash, 0, dash)) //ambil-mengambil
+      return BUANG_KEDUA;
+    if (ke2 <= dash && cocok(s, 0, ke0, ke2)) //..nya-.. tidak ada kecuali typo
+      return SALAH_KETIK;
+    if (dash <= ke2 && cocok(s, ke0, 0, dash)) //ahli-ahlimu
+      return BUANG_KEDUA;
+    return LAIN;
+  }
+
+  /* samaHuruf(x, y) is true <=> x and y are equal ignoring case, as in String.equalsIgnoreCase. */
+  static boolean samaHuruf(char x, char y) {
+    if (x == y) return true;
+    char u1 = Character.toUpperCase(x);
+    char u2 = Character.toUpperCase(y);
+    return u1 == u2 || Character.toLowerCase(u1) == Character.toLowerCase(u2);
+  }
+
+  /* sama(s, a, c, l) is true <=> s[a..a+l-1] equals s[c..c+l-1] ignoring case. */
+  static boolean sama(char[] s, int a, int c, int l) {
+    for (int z = 0; z < l; z++)
+      if (!samaHuruf(s[a+z], s[c+z]))
+        return false;
+    return true;
+  }
+
+  /* cocok(s, a, c, l) is true <=> s[a..a+l-1] equals s[c..c+l-1]. */
+  static boolean cocok(char[] s, int a, int c, int l) {
+    for (int z = 0; z < l; z++)
+      if (s[a+z] != s[c+z])
+        return false;
+    return true;
+  }
+}
@@ -0,0 +1,186 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A read-only set of Indonesian root words (kata dasar), consulted by an
+ * Indo that has one installed with Indo.setLexicon() so that a root which
+ * merely looks affixed, such as kuku, jumlah or belah, is left alone.
+ *
+ * The set is an open-addressing hash table laid out in a flat file that is
+ * memory-mapped rather than read, so it lives outside the Java heap and
+ * the pages are shared by every JVM on the host that maps the same file.
+ * Lookups read the mapping in place and create no objects.  Words are
+ * matched ignoring case.
+ *
+ * The file is a MappedTable with magic "IDLX", holding per word a char
+ * length and then the lower-cased chars.
+ *
+ * Build a file with write(), or from the command line with
+ *   java org.apache.lucene.analysis.RootLexicon words.txt roots.lex
+ * where words.txt is UTF-8 with one root per line; blank lines and lines
+ * starting with '#' are skipped.
+ */
+
+public final class RootLexicon
+{
+  private static final int MAGIC = 0x49444C58;
+  private static final int VERSION = 1;
+
+  private final MappedTable table;
+  private final ByteBuffer buf;
+
+  private RootLexicon(ByteBuffer buf) {
+    table = new MappedTable(buf, MAGIC, VERSION, "root lexicon");
+    this.buf = buf;
+  }
+
+  /** Maps a lexicon file written by write(). */
+  public static RootLexicon open(Path file) throws IOException {
+    return new RootLexicon(MappedTable.map(file));
+  }
+
+  /** Builds a lexicon of the given roots in a direct buffer, without a file. */
+  public static RootLexicon of(Iterable<? extends CharSequence> roots) {
+    return new RootLexicon(build(roots));
+  }
+
+  /** Writes the given roots to file in the format read by open(). */
+  public static void write(Iterable<? extends CharSequence> roots, Path file) throws IOException {
+    MappedTable.write(build(roots), file);
+  }
+
+  /** Returns the number of roots in the lexicon. */
+  public int size() { return table.size; }
+
+  public boolean contains(CharSequence word) {
+    int h = 0;
+    for (int o = 0; o < word.length(); o++)
+      h = 31*h + Character.toLowerCase(word.charAt(o));
+    h = MappedTable.mix(h);
+    for (int i = table.next(h, 0); i >= 0; i = table.next(h, i+1)) {
+      int p = table.entry(h, i);
+      int l = buf.getChar(p);
+      if (l != word.length())
+        continue;
+      int o = 0;
+      while (o < l && buf.getChar(p + 2 + 2*o) == Character.toLowerCase(word.charAt(o)))
+        o++;
+      if (o == l)
+        return true;
+    }
+    return false;
+  }
+
+  /** Tells whether s[off..off+len-1] is a root. */
+  public boolean contains(char[] s, int off, int len) {
+    return contains((char) 0, s, off, len);
+  }
+
+  /**
+   * Tells whether head followed by s[off..off+len-1] is a root, so that a
+   * nasalised stem such as "ukul" of memukul can be tried as "pukul"
+   * without copying it.  A head of 0 means no head.
+   */
+  boolean contains(char head, char[] s, int off, int len) {
+    int h = head == 0 ? 0 : Character.toLowerCase(head);
+    for (int o = off; o < off+len; o++)
+      h = 31*h + Character.toLowerCase(s[o]);
+    h = MappedTable.mix(h);
+    int n = head == 0 ? len : len+1;
+    for (int i = table.next(h, 0); i >= 0; i = table.next(h, i+1)) {
+      int p = table.entry(h, i);
+      if (buf.getChar(p) != n)
+        continue;
+      p += 2;
+      if (head != 0) {
+        if (buf.getChar(p) != Character.toLowerCase(head))
+          continue;
+        p += 2;
+      }
+      int o = 0;
+      while (o < len && buf.getChar(p + 2*o) == Character.toLowerCase(s[off+o]))
+        o++;
+      if (o == len)
+        return true;
+    }
+    return false;
+  }
+
+  private static ByteBuffer build(Iterable<? extends CharSequence> roots) {
+    Set<String> words = new LinkedHashSet<String>();
+    for (CharSequence r : roots) {
+      String w = r.toString().trim();
+      if (w.length() > Character.MAX_VALUE)
+        throw new IllegalArgumentException("root too long: " + w.substring(0, 20) + "...");
+      if (w.length() > 0) {
+        StringBuilder l = new StringBuilder(w.length());
+        for (int o = 0; o < w.length(); o++)
+          l.append(Character.toLowerCase(w.charAt(o)));
+        words.add(l.toString());
+      }
+    }
+    long bytes = 0;
+    for (String w : words)
+      bytes += 2 + 2L*w.length();
+    ByteBuffer b = MappedTable.allocate(MAGIC, VERSION, MappedTable.slotsFor(words.size()),
+                                        words.size(), bytes, "root lexicon");
+    int at = 0;
+    for (String w : words) {
+      int h = 0;
+      for (int o = 0; o < w.length(); o++)
+        h = 31*h + w.charAt(o);
+      MappedTable.insert(b, MappedTable.mix(h), at);
+      int p = MappedTable.data(b, at);
+      b.putChar(p, (char) w.length());
+      for (int o = 0; o < w.length(); o++)
+        b.putChar(p + 2 + 2*o, w.charAt(o));
+      at += 2 + 2*w.length();
+    }
+    return b;
+  }
+
+  /** Builds a lexicon file from a word list: RootLexicon words.txt roots.lex */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: RootLexicon words.txt roots.lex");
+      System.exit(2);
+    }
+    List<String> roots = new ArrayList<String>();
+    try (BufferedReader in = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+      for (String line; (line = in.readLine()) != null; )
+        if (!line.startsWith("#"))
+          roots.add(line);
+    }
+    Path out = Paths.get(args[1]);
+    write(roots, out);
+    System.out.println(open(out).size() + " roots written to " + out);
+  }
+}
@@ -0,0 +1,186 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * What Indo.analyze() found in a word: its root and the affixes that were
+ * removed to reach it.
+ *
+ * One instance is meant to be reused for word after word; it keeps its
+ * own copy of the root, in a buffer that only grows, so the result stays
+ * valid when the engine moves on.  The prefix is reported as the chars
+ * that were actually removed in front of the root, so getPrefix(), like
+ * getRoot(), builds a String; the other affixes are reported as the
+ * strings the rules know them by, all of them constants:
+ *
+ *   getPrefix()      ber, ter, per, pe, pem, pen, peny, peng, penge, me,
+ *                    mem, men, meny, meng, menge, di, se, ke, kau, ku, or
+ *                    two of these stacked, such as memper or dike, with
+ *                    isStackedPrefix() true; the nasal of memukul counts
+ *                    as removed although the root puts p back
+ *   getSuffix()      i, an, kan, wi, wan
+ *   getClitic()      ku, mu, nya, -ku, -mu, -nya
+ *   getParticle()    kah, lah, pun, tah
+ *
+ * An affix that was found but left on the root, because too little would
+ * remain without it, is not reported; one that went with the dropped half
+ * of a reduplication, as the di- and -kan of dibagi-bagikan, is.  Each is
+ * "" when there is none.
+ */
+
+public final class StemAnalysis
+{
+  /** getReduplication(): the word has no hyphen the rules acted on. */
+  public static final int NONE = 0;
+  /** The first half was dropped: ke-Allahan, berabad-abad. */
+  public static final int DROP_FIRST = Reduplikasi.BUANG_PERTAMA;
+  /** The second half was dropped: ahli-ahli, ambil-mengambil. */
+  public static final int DROP_SECOND = Reduplikasi.BUANG_KEDUA;
+  /** The first half was dropped as a typo of the second. */
+  public static final int TYPO = Reduplikasi.SALAH_KETIK;
+  /** Both halves carry affixes: dibagi-bagikan, mengata-ngatai. */
+  public static final int AFFIXED = Reduplikasi.IMBUHAN;
+  /** The hyphen only introduces a clitic, as in buku-nya; not a reduplication. */
+  public static final int CLITIC = Reduplikasi.KLITIK;
+  /** Any other hyphenated word, such as teka-teki or bolak-balik. */
+  public static final int OTHER = Reduplikasi.LAINNYA;
+
+  private static final String[] AWALAN = { "", "ber", "ter", "pe", "me", "di", "se", "ke", "kau", "ku" };
+  /* pe- dan me- menurut varian 0..6, lihat AffixCode */
+  private static final String[] PE = { "per", "pe", "pem", "pen", "peny", "peng", "penge" };
+  private static final String[] ME = { "mer", "me", "mem", "men", "meny", "meng", "menge" };
+  /* the prefixes one at a time, as they can appear in front of a root */
+  private static final String[] BENTUK = { "ber", "be", "ter", "te", "per", "pe", "pem", "pen",
+    "peny", "peng", "penge", "me", "mem", "men", "meny", "meng", "menge", "mer",
+    "di", "se", "ke", "ke-", "kau", "ku" };
+  private static final String[] KANANI = { "", "i", "an", "kan", "wi", "wan" };
+  private static final String[] KUMUNYA = { "", "ku", "mu", "nya", "-ku", "-mu", "-nya" };
+  private static final String[] KAHLAHPUN = { "", "kah", "lah", "pun", "tah" };
+
+  private char[] root = new char[16];
+  private int length;
+  private boolean changed;
+  private char[] prefix = new char[8];
+  private int prefixLength;
+  private boolean stacked;
+  private int kanani, kumunya, kahlahpun;
+  private int ulang;
+
+  void set(char[] b, int offset, int len, boolean changed,
+           int kanani, int kumunya, int kahlahpun, int ulang) {
+    if (root.length < len)
+      root = new char[Math.max(len, root.length*2)];
+    System.arraycopy(b, offset, root, 0, len);
+    length = len;
+    this.changed = changed;
+    this.kanani = kanani;
+    this.kumunya = kumunya;
+    this.kahlahpun = kahlahpun;
+    this.ulang = ulang;
+  }
+
+  /* Sets the prefix to the chars w[off..off+len). */
+  void setPrefix(char[] w, int off, int len) {
+    if (prefix.length < len)
+      prefix = new char[Math.max(len, prefix.length*2)];
+    System.arraycopy(w, off, prefix, 0, len);
+    prefixLength = len;
+    stacked = false;
+    for (int z = 1; z < len && !stacked; z++)
+      stacked = bentuk(prefix, 0, z) && bentuk(prefix, z, len-z);
+  }
+
+  /* Sets the prefix to the one named by a prefix code of AffixCode. */
+  void setPrefix(int awalan) {
+    String p = awalan(awalan);
+    p.getChars(0, p.length(), prefix, 0);
+    prefixLength = p.length();
+    stacked = false;
+  }
+
+  private static String awalan(int awalan) {
+    int kelas = AffixCode.kelas(awalan);
+    int varian = AffixCode.varian(awalan);
+    if (varian == AffixCode.NONE)
+      return "";
+    if (varian <= AffixCode.ENGE && kelas == 3) return PE[varian];
+    if (varian <= AffixCode.ENGE && kelas == 4) return ME[varian];
+    return kelas < AWALAN.length ? AWALAN[kelas] : "";
+  }
+
+  /* Tells whether c[off..off+len) is one prefix of BENTUK. */
+  private static boolean bentuk(char[] c, int off, int len) {
+    for (String f : BENTUK) {
+      if (f.length() != len)
+        continue;
+      int o = 0;
+      while (o < len && c[off+o] == f.charAt(o))
+        o++;
+      if (o == len)
+        return true;
+    }
+    return false;
+  }
+
+  /** Returns the buffer holding the root, from index 0 on. */
+  public char[] getRootBuffer() { return root; }
+
+  /** Returns the length of the root. */
+  public int getRootLength() { return length; }
+
+  /** Returns the root as a new String. */
+  public String getRoot() { return new String(root, 0, length); }
+
+  /** Tells whether the root differs from the word. */
+  public boolean isChanged() { return changed; }
+
+  /** Returns the prefix that was removed, or "". */
+  public String getPrefix() {
+    return prefixLength == 0 ? "" : new String(prefix, 0, prefixLength);
+  }
+
+  /** Tells whether the prefix is two stacked prefixes, as memper- or dike-. */
+  public boolean isStackedPrefix() { return stacked; }
+
+  /** Returns the derivational suffix that was removed, or "". */
+  public String getSuffix() { return KANANI[kanani]; }
+
+  /** Returns the possessive clitic that was removed, or "". */
+  public String getClitic() { return KUMUNYA[kumunya]; }
+
+  /** Returns the particle that was removed, or "". */
+  public String getParticle() { return KAHLAHPUN[kahlahpun]; }
+
+  /** Returns how a hyphenated word was resolved, one of the constants above. */
+  public int getReduplication() { return ulang; }
+
+  /** Tells whether the word was a reduplication (kata ulang). */
+  public boolean isReduplicated() { return ulang != NONE && ulang != CLITIC; }
+
+  /** Writes the analysis as, for instance, "bagi [di- -kan ulang 4]". */
+  public String toString() {
+    StringBuilder s = new StringBuilder().append(root, 0, length).append(" [");
+    if (prefixLength > 0) s.append(prefix, 0, prefixLength).append("- ");
+    if (kanani != 0) s.append('-').append(getSuffix()).append(' ');
+    if (kumunya != 0) s.append(kumunya >= AffixCode.DASH_KU ? "" : "-").append(getClitic()).append(' ');
+    if (kahlahpun != 0) s.append('-').append(getParticle()).append(' ');
+    if (ulang != NONE) s.append("ulang ").append(ulang).append(' ');
+    if (s.charAt(s.length()-1) == ' ') s.setLength(s.length()-1);
+    return s.append(']').toString();
+  }
+}
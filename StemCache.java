@@ -0,0 +1,340 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * A bounded, concurrent memo of stemming results, consulted by an Indo
+ * that has one installed with Indo.setCache().
+ *
+ * Running text repeats a small vocabulary over and over, so most words
+ * have been stemmed before.  The cache is split into segments, each with
+ * its own lock, hash table and recency list, so that threads stemming
+ * different words rarely wait for each other.  Lookups hash and compare
+ * the word in place in the caller's char[]; only a miss that is added to
+ * the cache copies it.
+ *
+ * Two eviction policies are offered.  LRU drops the least recently used
+ * entry of a full segment.  TINY_LFU keeps a small frequency sketch of the
+ * words looked up in each segment and only lets a new word displace the
+ * least recently used one if it has been asked for more often, which
+ * keeps rare words from flushing the common vocabulary out of the cache.
+ *
+ * One cache may be shared by any number of Indo instances, including
+ * ones on different threads.
+ */
+
+public final class StemCache
+{
+  /** How a full segment chooses what to keep. */
+  public enum Policy { LRU, TINY_LFU }
+
+  /** The largest maxEntries a cache can be sized for. */
+  public static final int MAX_ENTRIES = 1 << 27;
+
+  private final Segment[] segments;
+  private final int shift;
+  private final int maxEntries;
+  private final Policy policy;
+
+  /** Creates an LRU cache holding at most maxEntries words. */
+  public StemCache(int maxEntries) {
+    this(maxEntries, Policy.LRU);
+  }
+
+  /**
+   * Creates a cache holding at most maxEntries words.
+   * @throws IllegalArgumentException unless maxEntries is from 1 to MAX_ENTRIES
+   */
+  public StemCache(int maxEntries, Policy policy) {
+    if (maxEntries < 1 || maxEntries > MAX_ENTRIES)
+      throw new IllegalArgumentException("maxEntries must be from 1 to " + MAX_ENTRIES + ": " + maxEntries);
+    if (policy == null)
+      throw new NullPointerException("policy");
+    int n = 1;
+    int want = Runtime.getRuntime().availableProcessors() * 2;
+    while (n < want && maxEntries / (n*2) >= 16)
+      n *= 2;
+    segments = new Segment[n];
+    for (int z = 0; z < n; z++)
+      segments[z] = new Segment(maxEntries / n + (z < maxEntries % n ? 1 : 0), policy);
+    shift = 32 - Integer.numberOfTrailingZeros(n);
+    this.maxEntries = maxEntries;
+    this.policy = policy;
+  }
+
+  /**
+   * Looks up word[off..off+len-1] and, if it is cached, copies its stem
+   * to the start of out and returns the stem length shifted left by one,
+   * with the low bit set if the stemmer reported the word as changed.
+   * Returns -1 if the word is not cached.  out must hold len chars.
+   */
+  int get(char[] word, int off, int len, char[] out) {
+    int h = hash(word, off, len);
+    return segment(h).get(word, off, len, h, out);
+  }
+
+  /** Records the stem of word[off..off+len-1]. */
+  void put(char[] word, int off, int len, char[] stem, int soff, int slen, boolean dirty) {
+    int h = hash(word, off, len);
+    segment(h).put(word, off, len, h, stem, soff, slen, dirty);
+  }
+
+  /** Removes every entry; the counters are kept. */
+  public void clear() {
+    for (Segment s : segments)
+      s.clear();
+  }
+
+  /** Returns the number of words currently cached. */
+  public int size() {
+    int n = 0;
+    for (Segment s : segments)
+      synchronized (s) { n += s.size; }
+    return n;
+  }
+
+  /** Returns the number of lookups answered from the cache. */
+  public long hits() {
+    long n = 0;
+    for (Segment s : segments)
+      synchronized (s) { n += s.hits; }
+    return n;
+  }
+
+  /** Returns the number of lookups that had to run the stemmer. */
+  public long misses() {
+    long n = 0;
+    for (Segment s : segments)
+      synchronized (s) { n += s.misses; }
+    return n;
+  }
+
+  /** Returns the number of entries dropped to make room for others. */
+  public long evictions() {
+    long n = 0;
+    for (Segment s : segments)
+      synchronized (s) { n += s.evictions; }
+    return n;
+  }
+
+  /** Returns the maximum number of words this cache holds. */
+  public int capacity() { return maxEntries; }
+
+  public Policy policy() { return policy; }
+
+  public String toString() {
+    return "StemCache[" + policy + ", size=" + size() + "/" + maxEntries
+      + ", hits=" + hits() + ", misses=" + misses() + ", evictions=" + evictions() + "]";
+  }
+
+  private Segment segment(int h) {
+    return segments[shift == 32 ? 0 : h >>> shift];
+  }
+
+  private static int hash(char[] s, int off, int len) {
+    int h = 0;
+    for (int o = off; o < off+len; o++)
+      h = 31*h + s[o];
+    h *= 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private static final class Node
+  {
+    final char[] key;
+    final int hash;
+    char[] stem;
+    int stemLength;
+    boolean dirty;
+    Node chain;          /* next node in the same bucket */
+    Node prev, next;     /* recency list, most recent after head */
+
+    Node(char[] key, int hash) {
+      this.key = key;
+      this.hash = hash;
+    }
+  }
+
+  private static final class Segment
+  {
+    private final Node[] table;
+    private final Node head = new Node(null, 0);  /* sentinel of the recency list */
+    private final int limit;
+    private final FrequencySketch sketch;
+    int size;
+    long hits, misses, evictions;
+
+    Segment(int limit, Policy policy) {
+      int n = 2;
+      while (n < limit * 4 / 3 + 1)
+        n *= 2;
+      table = new Node[n];
+      head.prev = head.next = head;
+      this.limit = limit;
+      sketch = policy == Policy.TINY_LFU ? new FrequencySketch(limit) : null;
+    }
+
+    synchronized int get(char[] word, int off, int len, int h, char[] out) {
+      if (sketch != null)
+        sketch.increment(h);
+      Node e = find(word, off, len, h);
+      if (e == null) {
+        misses++;
+        return -1;
+      }
+      hits++;
+      unlink(e);
+      linkFirst(e);
+      System.arraycopy(e.stem, 0, out, 0, e.stemLength);
+      return e.stemLength << 1 | (e.dirty ? 1 : 0);
+    }
+
+    synchronized void put(char[] word, int off, int len, int h,
+                          char[] stem, int soff, int slen, boolean dirty) {
+      Node e = find(word, off, len, h);
+      if (e == null) {
+        if (size >= limit) {
+          Node victim = head.prev;
+          if (sketch != null && sketch.frequency(h) <= sketch.frequency(victim.hash))
+            return;
+          remove(victim);
+          evictions++;
+        }
+        char[] key = new char[len];
+        System.arraycopy(word, off, key, 0, len);
+        e = new Node(key, h);
+        int z = h & (table.length-1);
+        e.chain = table[z];
+        table[z] = e;
+        size++;
+      } else {
+        unlink(e);
+      }
+      linkFirst(e);
+      if (slen == len && equal(e.key, 0, stem, soff, slen)) {
+        e.stem = e.key;
+      } else {
+        e.stem = new char[slen];
+        System.arraycopy(stem, soff, e.stem, 0, slen);
+      }
+      e.stemLength = slen;
+      e.dirty = dirty;
+    }
+
+    synchronized void clear() {
+      java.util.Arrays.fill(table, null);
+      head.prev = head.next = head;
+      size = 0;
+    }
+
+    private Node find(char[] word, int off, int len, int h) {
+      for (Node e = table[h & (table.length-1)]; e != null; e = e.chain)
+        if (e.hash == h && e.key.length == len && equal(e.key, 0, word, off, len))
+          return e;
+      return null;
+    }
+
+    private void remove(Node e) {
+      unlink(e);
+      int z = e.hash & (table.length-1);
+      if (table[z] == e) {
+        table[z] = e.chain;
+      } else {
+        Node p = table[z];
+        while (p.chain != e)
+          p = p.chain;
+        p.chain = e.chain;
+      }
+      size--;
+    }
+
+    private void unlink(Node e) {
+      e.prev.next = e.next;
+      e.next.prev = e.prev;
+    }
+
+    private void linkFirst(Node e) {
+      e.next = head.next;
+      e.prev = head;
+      head.next.prev = e;
+      head.next = e;
+    }
+
+    private static boolean equal(char[] a, int ao, char[] c, int co, int len) {
+      for (int o = 0; o < len; o++)
+        if (a[ao+o] != c[co+o])
+          return false;
+      return true;
+    }
+  }
+
+  /*
+   * A count-min sketch of 4 rows of saturating 4-bit counters, packed 16
+   * to a long.  Every counter is halved once the number of increments
+   * reaches ten times the segment size, so that old popularity fades.
+   */
+  private static final class FrequencySketch
+  {
+    private static final int[] SEED = { 0x97CB3127, 0xB3A2F7C5, 0x4F6D1B83, 0xE1C3A5D7 };
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int limit) {
+      int n = 1;
+      while (n * 4 < limit)
+        n *= 2;
+      table = new long[n];
+      mask = n * 16 - 1;
+      sampleSize = Math.max(10 * limit, 16);
+    }
+
+    void increment(int h) {
+      boolean added = false;
+      for (int r = 0; r < 4; r++) {
+        int z = index(h, r);
+        int sh = (z & 15) << 2;
+        long c = table[z >>> 4] >>> sh & 0xF;
+        if (c < 15) {
+          table[z >>> 4] += 1L << sh;
+          added = true;
+        }
+      }
+      if (added && ++additions >= sampleSize) {
+        for (int z = 0; z < table.length; z++)
+          table[z] = table[z] >>> 1 & 0x7777777777777777L;
+        additions /= 2;
+      }
+    }
+
+    int frequency(int h) {
+      int f = 15;
+      for (int r = 0; r < 4; r++) {
+        int z = index(h, r);
+        f = Math.min(f, (int) (table[z >>> 4] >>> ((z & 15) << 2) & 0xF));
+      }
+      return f;
+    }
+
+    private int index(int h, int r) {
+      int x = (h + SEED[r]) * SEED[r];
+      return (x ^ (x >>> 15)) & mask;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.PrintStream;
+
+/**
+ * Receives the events the Indo stemmer used to print to the console
+ * while stemming, for debugging the rules against a corpus.
+ *
+ * The word is passed as a range of the stemmer's internal buffer, which
+ * is only valid for the duration of the call.  The default is NONE, so
+ * stemming does no I/O and does not even compute the data for these
+ * events unless a listener is installed with Indo.setDiagnostics().
+ */
+
+public interface StemDiagnostics
+{
+  /** A listener that ignores every event. */
+  StemDiagnostics NONE = new StemDiagnostics() {};
+
+  /** Called for a word of more than two letters with a single syllable. */
+  default void monosyllabic(char[] word, int offset, int length) {}
+
+  /**
+   * Called for a reduplication whose first half starts with its second
+   * half, such as "..nya-..", which only happens through a typo.
+   */
+  default void suspectedTypo(char[] word, int offset, int length) {}
+
+  /** Returns a listener that writes the events to out, as the stemmer once did. */
+  static StemDiagnostics printTo(final PrintStream out) {
+    return new StemDiagnostics() {
+      public void monosyllabic(char[] word, int offset, int length) {
+        out.print(new String(word, offset, length) + "   ");
+      }
+      public void suspectedTypo(char[] word, int offset, int length) {
+        out.println(new String(word, offset, length) + " SALAH");
+      }
+    };
+  }
+}
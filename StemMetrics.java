@@ -0,0 +1,224 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counts what the Indo stemmer does, for instances that have it installed
+ * with Indo.setMetrics().  Nothing is counted by default.
+ *
+ * Counted are the words stemmed and the words changed, answers from a
+ * StemTable, a StemCache and a RootLexicon, the suffix and prefix codes
+ * the affix analysis found, the way each hyphenated word was resolved
+ * and, if asked for, the time each stem took, in power-of-two buckets.
+ * Words stemmed with stem(int) directly are not counted.
+ *
+ * All counters are LongAdders, so one instance can be shared by every
+ * engine in a process at little cost; a counter for an affix code is
+ * only created the first time that code is seen.  The counters can be
+ * read through the methods here or, after register(), over JMX.
+ */
+
+public final class StemMetrics implements StemMetricsMXBean
+{
+  /* dense index of a suffix code: kanani 0..5, kumunya 0..6, kahlahpun 0..4, panjang 0..10 */
+  private static final int SUFFIXES = 6*7*5*11;
+
+  private static final String[] REDUPLIKASI = {
+    null, "drop first half", "drop second half", "typo", "affixed halves",
+    "clitic after hyphen", "other",
+  };
+
+  private final boolean timed;
+  private final LongAdder tokens = new LongAdder(), changed = new LongAdder();
+  private final LongAdder tableHits = new LongAdder(), lexiconHits = new LongAdder();
+  private final LongAdder cacheHits = new LongAdder(), cacheMisses = new LongAdder();
+  private final AtomicReferenceArray<LongAdder> suffixes = new AtomicReferenceArray<LongAdder>(SUFFIXES+1);
+  private final AtomicReferenceArray<LongAdder> prefixes = new AtomicReferenceArray<LongAdder>(256);
+  private final LongAdder[] reduplications = new LongAdder[REDUPLIKASI.length];
+  private final LongAdder[] latency = new LongAdder[64];
+
+  /** Creates metrics that count but do not time. */
+  public StemMetrics() {
+    this(false);
+  }
+
+  /** Creates metrics that also keep a histogram of stem times if timed is true. */
+  public StemMetrics(boolean timed) {
+    this.timed = timed;
+    for (int z = 0; z < reduplications.length; z++)
+      reduplications[z] = new LongAdder();
+    for (int z = 0; z < latency.length; z++)
+      latency[z] = new LongAdder();
+  }
+
+  /** Tells whether stem times are recorded. */
+  public boolean isTimed() { return timed; }
+
+  /** Registers these metrics with the platform MBean server under the given name. */
+  public void register(String name) throws JMException {
+    ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+      new ObjectName("org.apache.lucene.analysis:type=StemMetrics,name=" + ObjectName.quote(name)));
+  }
+
+  /* Called by Indo. */
+
+  void stemmed(boolean dirty, long nanos) {
+    tokens.increment();
+    if (dirty)
+      changed.increment();
+    if (timed)
+      latency[nanos <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(nanos)].increment();
+  }
+
+  void tableHit() { tableHits.increment(); }
+
+  void cacheLookup(boolean hit) {
+    (hit ? cacheHits : cacheMisses).increment();
+  }
+
+  void lexiconHit() { lexiconHits.increment(); }
+
+  void affixes(int akhiran, int awalan) {
+    int kanani = AffixCode.kanani(akhiran), kumunya = AffixCode.kumunya(akhiran);
+    int kahlahpun = AffixCode.kahlahpun(akhiran), panjang = AffixCode.panjang(akhiran);
+    int z = kanani < 6 && kumunya < 7 && kahlahpun < 5 && panjang < 11
+      ? ((kanani*7 + kumunya)*5 + kahlahpun)*11 + panjang : SUFFIXES;
+    adder(suffixes, z).increment();
+    adder(prefixes, awalan & 0xFF).increment();
+  }
+
+  void reduplication(int jenis) {
+    reduplications[jenis].increment();
+  }
+
+  private static LongAdder adder(AtomicReferenceArray<LongAdder> a, int z) {
+    LongAdder c = a.get(z);
+    if (c == null) {
+      a.compareAndSet(z, null, new LongAdder());
+      c = a.get(z);
+    }
+    return c;
+  }
+
+  /* The pull API. */
+
+  public long getTokens() { return tokens.sum(); }
+  public long getChanged() { return changed.sum(); }
+  public long getTableHits() { return tableHits.sum(); }
+  public long getCacheHits() { return cacheHits.sum(); }
+  public long getCacheMisses() { return cacheMisses.sum(); }
+  public long getLexiconHits() { return lexiconHits.sum(); }
+
+  public double getCacheHitRate() {
+    long h = cacheHits.sum(), m = cacheMisses.sum();
+    return h + m == 0 ? 0 : h / (double) (h + m);
+  }
+
+  public Map<String, Long> getSuffixCodes() {
+    Map<String, Long> m = new TreeMap<String, Long>();
+    for (int z = 0; z < SUFFIXES; z++) {
+      LongAdder c = suffixes.get(z);
+      if (c != null && c.sum() > 0)
+        m.put(AffixCode.akhiranToString(AffixCode.akhiran(z/385, z/55%7, z/11%5, z%11)), c.sum());
+    }
+    LongAdder c = suffixes.get(SUFFIXES);
+    if (c != null && c.sum() > 0)
+      m.put("other", c.sum());
+    return m;
+  }
+
+  public Map<String, Long> getPrefixCodes() {
+    Map<String, Long> m = new TreeMap<String, Long>();
+    for (int z = 0; z < prefixes.length(); z++) {
+      LongAdder c = prefixes.get(z);
+      if (c != null && c.sum() > 0)
+        m.put(AffixCode.awalanToString(z), c.sum());
+    }
+    return m;
+  }
+
+  public Map<String, Long> getReduplications() {
+    Map<String, Long> m = new TreeMap<String, Long>();
+    for (int z = 1; z < reduplications.length; z++)
+      if (reduplications[z].sum() > 0)
+        m.put(REDUPLIKASI[z], reduplications[z].sum());
+    return m;
+  }
+
+  /**
+   * Returns the stem time histogram: element z counts the stems that took
+   * from 2^(z-1) up to 2^z - 1 nanoseconds, element 0 those that took none.
+   */
+  public long[] getLatencyHistogram() {
+    long[] h = new long[latency.length];
+    for (int z = 0; z < h.length; z++)
+      h[z] = latency[z].sum();
+    return h;
+  }
+
+  public long getLatencyMedianNanos() { return percentile(0.5); }
+  public long getLatency99Nanos() { return percentile(0.99); }
+
+  /* The upper bound of the bucket holding the q-th quantile. */
+  private long percentile(double q) {
+    long[] h = getLatencyHistogram();
+    long total = 0;
+    for (long n : h)
+      total += n;
+    if (total == 0)
+      return 0;
+    long want = (long) Math.ceil(q * total), seen = 0;
+    for (int z = 0; z < h.length; z++) {
+      seen += h[z];
+      if (seen >= want)
+        return z == 0 ? 0 : z >= 63 ? Long.MAX_VALUE : (1L << z) - 1;
+    }
+    return Long.MAX_VALUE;
+  }
+
+  public void reset() {
+    tokens.reset();
+    changed.reset();
+    tableHits.reset();
+    lexiconHits.reset();
+    cacheHits.reset();
+    cacheMisses.reset();
+    for (int z = 0; z < suffixes.length(); z++)
+      if (suffixes.get(z) != null) suffixes.get(z).reset();
+    for (int z = 0; z < prefixes.length(); z++)
+      if (prefixes.get(z) != null) prefixes.get(z).reset();
+    for (LongAdder c : reduplications)
+      c.reset();
+    for (LongAdder c : latency)
+      c.reset();
+  }
+
+  public String toString() {
+    return "StemMetrics[tokens=" + getTokens() + ", changed=" + getChanged()
+      + ", tableHits=" + getTableHits() + ", cacheHits=" + getCacheHits()
+      + ", cacheMisses=" + getCacheMisses() + ", lexiconHits=" + getLexiconHits() + "]";
+  }
+}
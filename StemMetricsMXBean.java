@@ -0,0 +1,48 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Map;
+
+/**
+ * The JMX view of a StemMetrics; see there for what is counted.
+ */
+
+public interface StemMetricsMXBean
+{
+  long getTokens();
+  long getChanged();
+  long getTableHits();
+  long getCacheHits();
+  long getCacheMisses();
+  long getLexiconHits();
+  /** Fraction of cache lookups answered from the cache, or 0 if there were none. */
+  double getCacheHitRate();
+  /** Words per suffix code found by berakhiran(), keyed as "typeABCD". */
+  Map<String, Long> getSuffixCodes();
+  /** Words per prefix code found by berawalan(), keyed as "typeEF". */
+  Map<String, Long> getPrefixCodes();
+  /** Hyphenated words per way reduplikasi() resolved them. */
+  Map<String, Long> getReduplications();
+  /** Approximate median stem time in nanoseconds, or 0 if not timed. */
+  long getLatencyMedianNanos();
+  /** Approximate 99th percentile stem time in nanoseconds, or 0 if not timed. */
+  long getLatency99Nanos();
+  /** Sets every counter back to zero. */
+  void reset();
+}
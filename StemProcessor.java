@@ -0,0 +1,333 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A Flow.Processor that stems batches of text on several threads.
+ *
+ * Each item is a List of strings, which may be single words or whole
+ * documents; each string is stemmed as StemmingWriter does in PRESERVE
+ * mode, so a word comes out as its lower-cased stem and a document keeps
+ * its spacing and punctuation.  The stemmed batches are published in the
+ * order they arrived.
+ *
+ * At most getParallelism() workers run at once on the executor, by
+ * default the common ForkJoinPool, and each keeps one engine, borrowed
+ * from a private IndoStemmerPool, for as long as it finds work.  No more
+ * than getCapacity() batches are ever requested from upstream beyond
+ * those already handed downstream, counting the ones being stemmed and
+ * the ones waiting for downstream demand, so a slow subscriber holds
+ * back the publisher instead of letting batches pile up here.
+ *
+ * The processor serves one subscription on each side.  An error from
+ * upstream, like its completion, is passed downstream after the batches
+ * received before it; an error while stemming is passed downstream at
+ * once, and pending batches are dropped.
+ */
+
+public final class StemProcessor implements Flow.Processor<List<String>, List<String>>
+{
+  private final Executor executor;
+  private final int parallelism;
+  private final int capacity;
+  private final IndoStemmerPool engines;
+  private StemCache cache;
+  private RootLexicon lexicon;
+  private StemTable table;
+  private StemMetrics metrics;
+
+  /* batches received but not yet taken by a worker */
+  private final ConcurrentLinkedQueue<Batch> input = new ConcurrentLinkedQueue<Batch>();
+  /* stemmed batches waiting for their turn, by sequence number */
+  private final ConcurrentHashMap<Long, List<String>> stemmed = new ConcurrentHashMap<Long, List<String>>();
+  private final AtomicInteger workers = new AtomicInteger();
+  private final AtomicInteger wip = new AtomicInteger();
+  private final AtomicLong demand = new AtomicLong();
+  private final AtomicBoolean started = new AtomicBoolean();
+  private final AtomicBoolean taken = new AtomicBoolean();
+  private final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+  private volatile Flow.Subscription upstream;
+  private volatile Flow.Subscriber<? super List<String>> downstream;
+  private volatile long received;  /* written only by onNext */
+  private volatile boolean complete;
+  private volatile Throwable failed;  /* the error upstream ended with */
+  private volatile boolean cancelled;
+  private long emitted;            /* used only inside drain() */
+  private boolean terminated;      /* used only inside drain() */
+
+  private static final class Batch {
+    final long seq;
+    final List<String> texts;
+
+    Batch(long seq, List<String> texts) {
+      this.seq = seq;
+      this.texts = texts;
+    }
+  }
+
+  /**
+   * Creates a processor running at most parallelism workers on the common
+   * ForkJoinPool, with room for two batches per worker.
+   */
+  public StemProcessor(int parallelism) {
+    this(ForkJoinPool.commonPool(), parallelism, 2 * parallelism);
+  }
+
+  /**
+   * Creates a processor running at most parallelism workers on executor,
+   * which it uses but does not shut down, and holding at most capacity
+   * batches at a time.
+   */
+  public StemProcessor(Executor executor, int parallelism, int capacity) {
+    if (parallelism < 1)
+      throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+    if (capacity < 1)
+      throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    this.executor = executor;
+    this.parallelism = parallelism;
+    this.capacity = capacity;
+    engines = new IndoStemmerPool(parallelism);
+  }
+
+  public int getParallelism() { return parallelism; }
+
+  public int getCapacity() { return capacity; }
+
+  /** Shares a StemCache between all workers; null for none. */
+  public void setCache(StemCache c) { cache = c; }
+
+  /** Shares a RootLexicon between all workers; null for none. */
+  public void setLexicon(RootLexicon l) { lexicon = l; }
+
+  /** Shares a StemTable between all workers; null for none. */
+  public void setStemTable(StemTable t) { table = t; }
+
+  /** Shares StemMetrics between all workers; null for none. */
+  public void setMetrics(StemMetrics m) { metrics = m; }
+
+  /* ---- upstream side ---- */
+
+  public void onSubscribe(Flow.Subscription s) {
+    Objects.requireNonNull(s);
+    if (upstream != null || cancelled) {
+      s.cancel();
+      return;
+    }
+    upstream = s;
+    start();
+  }
+
+  public void onNext(List<String> texts) {
+    Objects.requireNonNull(texts);
+    if (cancelled || error.get() != null)
+      return;
+    input.offer(new Batch(received, texts));
+    received++;
+    if (claimWorker()) {
+      try {
+        executor.execute(this::work);
+      } catch (RejectedExecutionException e) {
+        workers.decrementAndGet();
+        fail(e);
+      }
+    }
+  }
+
+  public void onError(Throwable t) {
+    Objects.requireNonNull(t);
+    failed = t;
+    complete = true;
+    drain();
+  }
+
+  public void onComplete() {
+    complete = true;
+    drain();
+  }
+
+  /* ---- downstream side ---- */
+
+  public void subscribe(Flow.Subscriber<? super List<String>> s) {
+    Objects.requireNonNull(s);
+    if (!taken.compareAndSet(false, true)) {
+      s.onSubscribe(new Flow.Subscription() {
+        public void request(long n) {}
+        public void cancel() {}
+      });
+      s.onError(new IllegalStateException("StemProcessor takes only one subscriber"));
+      return;
+    }
+    s.onSubscribe(new Flow.Subscription() {
+      public void request(long n) {
+        if (n <= 0) {
+          fail(new IllegalArgumentException("non-positive request: " + n));
+          return;
+        }
+        demand.getAndAccumulate(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+        drain();
+      }
+
+      public void cancel() {
+        cancelled = true;
+        Flow.Subscription u = upstream;
+        if (u != null)
+          u.cancel();
+        drain();
+      }
+    });
+    downstream = s;
+    start();
+    drain();
+  }
+
+  /* Prefetches capacity batches once both sides are connected. */
+  private void start() {
+    Flow.Subscription u = upstream;
+    if (u != null && downstream != null && !cancelled && started.compareAndSet(false, true))
+      u.request(capacity);
+  }
+
+  /* ---- workers ---- */
+
+  private boolean claimWorker() {
+    for (;;) {
+      int w = workers.get();
+      if (w >= parallelism)
+        return false;
+      if (workers.compareAndSet(w, w+1))
+        return true;
+    }
+  }
+
+  private void work() {
+    Indo s = engines.borrow();
+    try {
+      s.setCache(cache);
+      s.setLexicon(lexicon);
+      s.setStemTable(table);
+      s.setMetrics(metrics);
+      StringWriter text = new StringWriter();
+      StemmingWriter w = new StemmingWriter(text, s, StemmingWriter.Mode.PRESERVE);
+      for (;;) {
+        Batch b;
+        while ((b = input.poll()) != null) {
+          if (cancelled || error.get() != null)
+            continue;
+          List<String> out = new ArrayList<String>(b.texts.size());
+          for (String t : b.texts) {
+            text.getBuffer().setLength(0);
+            w.write(t);
+            w.endWord();
+            out.add(text.toString());
+          }
+          stemmed.put(b.seq, out);
+          drain();
+        }
+        workers.decrementAndGet();
+        /* a batch may have arrived after the poll but before the decrement */
+        if (input.isEmpty() || !claimWorker())
+          return;
+      }
+    } catch (IOException | RuntimeException e) {
+      workers.decrementAndGet();
+      fail(e);
+    } finally {
+      engines.release(s);
+    }
+  }
+
+  private void fail(Throwable t) {
+    if (error.compareAndSet(null, t)) {
+      Flow.Subscription u = upstream;
+      if (u != null)
+        u.cancel();
+    }
+    drain();
+  }
+
+  /*
+   * Hands the stemmed batches downstream in order, as far as demand
+   * allows, and asks upstream for one batch for each one handed on.  Only
+   * one thread at a time gets past the wip counter; a call that finds
+   * another one inside leaves it to loop once more.
+   */
+  private void drain() {
+    if (wip.getAndIncrement() != 0)
+      return;
+    int missed = 1;
+    for (;;) {
+      Flow.Subscriber<? super List<String>> d = downstream;
+      if (d != null && !terminated) {
+        Throwable t = error.get();
+        if (cancelled) {
+          terminated = true;
+          input.clear();
+          stemmed.clear();
+        } else if (t != null) {
+          terminated = true;
+          input.clear();
+          stemmed.clear();
+          d.onError(t);
+        } else {
+          long r = demand.get();
+          long e = 0;
+          while (e != r) {
+            List<String> out = stemmed.remove(emitted);
+            if (out == null)
+              break;
+            emitted++;
+            e++;
+            d.onNext(out);
+          }
+          if (e > 0) {
+            if (r != Long.MAX_VALUE)
+              demand.addAndGet(-e);
+            if (!cancelled && error.get() == null)
+              upstream.request(e);
+          }
+          if (complete && emitted == received && error.get() == null && !cancelled) {
+            terminated = true;
+            if (failed != null)
+              d.onError(failed);
+            else
+              d.onComplete();
+          }
+        }
+      }
+      missed = wip.addAndGet(-missed);
+      if (missed == 0)
+        break;
+    }
+  }
+}
@@ -0,0 +1,330 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.management.JMException;
+
+/**
+ * A long-running stemming daemon for programs outside the JVM.
+ *
+ * Usage: StemServer [-p port | -u socket] [-c size] [-l roots.lex] [-s stems.tbl] [-v]
+ *
+ *   -p port     listen on this TCP port of the loopback address (default 4747)
+ *   -u socket   listen on this Unix domain socket instead; the file must
+ *               not exist yet
+ *   -c, -l, -s  as for IndoStem
+ *   -v          keep StemMetrics, registered over JMX as
+ *               org.apache.lucene.analysis:type=StemMetrics,name="StemServer",
+ *               and print them to standard error on shutdown
+ *
+ * The protocol is UTF-8 text, one request per line: each line is stemmed
+ * as StemmingWriter does in PRESERVE mode and answered with one line, so
+ * a line may hold a single word or a whole document with its newlines
+ * taken out.  A line may be at most MAX_LINE chars long; a client that
+ * sends a longer one is disconnected.  A client may send many lines
+ * before reading the answers, which come back in the same order; they
+ * are flushed whenever the server has answered every whole line it has
+ * received, before it waits for the rest of a line.  For example:
+ *
+ *   printf 'mempermainkan\nahli-ahli bahasa\n' | nc localhost 4747
+ *
+ * Each connection is served by its own thread, a virtual thread where the
+ * JVM has them (Java 21 and later) and a pooled platform thread
+ * elsewhere, so many idle connections cost little.  Connections do not
+ * own engines; they borrow one from an IndoStemmerPool holding one per
+ * core only while they have lines to stem, and hand it back before
+ * waiting for more.
+ */
+
+public final class StemServer
+{
+  private static final int BUFFER = 1 << 16;
+
+  /** The longest request line a client may send, in chars. */
+  public static final int MAX_LINE = 1 << 20;
+
+  private final ExecutorService executor;
+  private final IndoStemmerPool engines = new IndoStemmerPool();
+  private StemCache cache;
+  private RootLexicon lexicon;
+  private StemTable table;
+  private StemMetrics metrics;
+
+  /** Creates a server that handles connections on virtual threads if it can. */
+  public StemServer() {
+    this(newExecutor());
+  }
+
+  /**
+   * Creates a server that handles each connection as a task on executor,
+   * which it uses but does not shut down.
+   */
+  public StemServer(ExecutorService executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Returns a virtual-thread-per-task executor, looked up by reflection so
+   * that this class still compiles for and runs on older JVMs, or else a
+   * cached pool of daemon threads.
+   */
+  static ExecutorService newExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "StemServer");
+        t.setDaemon(true);
+        return t;
+      });
+    }
+  }
+
+  /** Shares a StemCache between all connections; null for none. */
+  public void setCache(StemCache c) { cache = c; }
+
+  /** Shares a RootLexicon between all connections; null for none. */
+  public void setLexicon(RootLexicon l) { lexicon = l; }
+
+  /** Shares a StemTable between all connections; null for none. */
+  public void setStemTable(StemTable t) { table = t; }
+
+  /** Shares StemMetrics between all connections; null for none. */
+  public void setMetrics(StemMetrics m) { metrics = m; }
+
+  /** Opens a server channel on the given port of the loopback address. */
+  public static ServerSocketChannel bind(int port) throws IOException {
+    ServerSocketChannel server = ServerSocketChannel.open();
+    server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    return server;
+  }
+
+  /** Opens a server channel on a new Unix domain socket at path. */
+  public static ServerSocketChannel bind(Path path) throws IOException {
+    ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+    server.bind(UnixDomainSocketAddress.of(path));
+    return server;
+  }
+
+  /**
+   * Accepts connections on server, which must be in blocking mode, until
+   * it is closed.
+   */
+  public void serve(ServerSocketChannel server) throws IOException {
+    for (;;) {
+      final SocketChannel client;
+      try {
+        client = server.accept();
+      } catch (ClosedChannelException e) {
+        return;
+      }
+      executor.execute(() -> {
+        try (SocketChannel c = client) {
+          serve(c);
+        } catch (IOException e) {
+          /* the client went away */
+        }
+      });
+    }
+  }
+
+  private void serve(SocketChannel client) throws IOException {
+    LineReader in = new LineReader(new InputStreamReader(Channels.newInputStream(client),
+      StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE)));
+    Writer out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(client),
+                                                           StandardCharsets.UTF_8), BUFFER);
+    String line;
+    while ((line = in.readLine()) != null) {
+      Indo s = engines.borrow();
+      try {
+        s.setCache(cache);
+        s.setLexicon(lexicon);
+        s.setStemTable(table);
+        s.setMetrics(metrics);
+        StemmingWriter w = new StemmingWriter(out, s, StemmingWriter.Mode.PRESERVE);
+        do {
+          w.write(line);
+          w.endWord();
+          out.write('\n');
+        } while (in.ready() && (line = in.readLine()) != null);
+      } finally {
+        engines.release(s);
+      }
+      out.flush();
+    }
+    out.flush();
+  }
+
+  public static void main(String[] args) throws IOException {
+    int port = 4747;
+    String socket = null;
+    StemCache cache = null;
+    RootLexicon lexicon = null;
+    StemTable table = null;
+    StemMetrics metrics = null;
+    for (int a = 0; a < args.length; a++) {
+      String opt = args[a];
+      if (opt.equals("-p") && a+1 < args.length) {
+        port = number(args[++a], 0xFFFF);
+      } else if (opt.equals("-u") && a+1 < args.length) {
+        socket = args[++a];
+      } else if (opt.equals("-c") && a+1 < args.length) {
+        cache = new StemCache(number(args[++a], StemCache.MAX_ENTRIES), StemCache.Policy.TINY_LFU);
+      } else if (opt.equals("-l") && a+1 < args.length) {
+        lexicon = RootLexicon.open(Paths.get(args[++a]));
+      } else if (opt.equals("-s") && a+1 < args.length) {
+        table = StemTable.open(Paths.get(args[++a]));
+      } else if (opt.equals("-v")) {
+        metrics = new StemMetrics(true);
+      } else {
+        usage();
+      }
+    }
+
+    StemServer server = new StemServer();
+    server.setCache(cache);
+    server.setLexicon(lexicon);
+    server.setStemTable(table);
+    server.setMetrics(metrics);
+    if (metrics != null) {
+      try {
+        metrics.register("StemServer");
+      } catch (JMException e) {
+        System.err.println("StemServer: metrics not registered over JMX: " + e);
+      }
+      final StemMetrics m = metrics;
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> IndoStem.report(m)));
+    }
+    ServerSocketChannel channel = socket != null ? bind(Paths.get(socket)) : bind(port);
+    System.err.println("StemServer listening on " + channel.getLocalAddress());
+    server.serve(channel);
+  }
+
+  private static void usage() {
+    System.err.println("Usage: StemServer [-p port | -u socket] [-c size] [-l roots.lex] [-s stems.tbl] [-v]");
+    System.exit(2);
+  }
+
+  /* Parses the value of -p or -c, which must be a number from 1 to max. */
+  private static int number(String s, int max) {
+    try {
+      int n = Integer.parseInt(s);
+      if (n > 0 && n <= max)
+        return n;
+    } catch (NumberFormatException e) {
+      /* fall through to the usage message */
+    }
+    usage();
+    return 0;
+  }
+
+  /*
+   * Reads lines ended by \n, \r or \r\n like BufferedReader.readLine(),
+   * but fails on a line longer than MAX_LINE rather than buffering
+   * whatever a client sends without a newline.
+   */
+  private static final class LineReader
+  {
+    private final Reader in;
+    private final char[] buf = new char[BUFFER];
+    private final StringBuilder line = new StringBuilder();
+    private int pos, end;
+    private boolean skipLF;
+
+    LineReader(Reader in) {
+      this.in = in;
+    }
+
+    /* Returns the next line without its end, or null at the end of input. */
+    String readLine() throws IOException {
+      line.setLength(0);
+      for (;;) {
+        if (pos == end) {
+          int n = in.read(buf, 0, buf.length);
+          if (n < 0)
+            return line.length() == 0 ? null : line.toString();
+          pos = 0;
+          end = n;
+        }
+        if (skipLF && buf[pos] == '\n')
+          pos++;
+        skipLF = false;
+        int start = pos;
+        while (pos < end && buf[pos] != '\n' && buf[pos] != '\r')
+          pos++;
+        if (line.length() + pos - start > MAX_LINE)
+          throw new IOException("request line longer than " + MAX_LINE + " chars");
+        line.append(buf, start, pos - start);
+        if (pos < end) {
+          skipLF = buf[pos++] == '\r';
+          return line.toString();
+        }
+      }
+    }
+
+    /*
+     * Tells whether a whole line, up to its end, is buffered, so that
+     * readLine() will not block on the client.  Takes in what the client
+     * has already sent, but never waits for more.
+     */
+    boolean ready() throws IOException {
+      for (;;) {
+        if (skipLF && pos < end && buf[pos] == '\n') {
+          pos++;
+          skipLF = false;
+        }
+        for (int o = pos; o < end; o++)
+          if (buf[o] == '\n' || buf[o] == '\r')
+            return true;
+        if (pos > 0) {
+          System.arraycopy(buf, pos, buf, 0, end - pos);
+          end -= pos;
+          pos = 0;
+        }
+        if (end == buf.length || !in.ready())
+          return false;
+        int n = in.read(buf, end, buf.length - end);
+        if (n < 0)
+          return false;
+        end += n;
+      }
+    }
+  }
+}
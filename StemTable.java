@@ -0,0 +1,207 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A precomputed word-to-stem table for a fixed vocabulary, consulted by
+ * an Indo that has one installed with Indo.setStemTable() before it runs
+ * any rule.
+ *
+ * The table is built once by running the stemmer over the vocabulary and
+ * is then memory-mapped, so opening it costs a few milliseconds however
+ * large it is and needs no warm-up.  Like RootLexicon it is an
+ * open-addressing hash table in a flat file, probed in place without
+ * creating objects.  Words are matched exactly, since the rules are case
+ * sensitive.  Each distinct stem is stored once and shared by all the
+ * words that reduce to it; a word that the stemmer leaves alone stores no
+ * stem at all.
+ *
+ * The file is a MappedTable with magic "IDST", holding per word a char
+ * length, an int stem offset in the data area (-1 if the word is its own
+ * stem) and then the chars, and per distinct stem a char length and then
+ * the chars.
+ *
+ * The table reflects the AffixRules in force when it was built, and must
+ * be rebuilt when they change.
+ *
+ * Build a table with write(), or from the command line with
+ *   java org.apache.lucene.analysis.StemTable words.txt stems.tbl
+ * where words.txt is UTF-8 and whitespace separated.
+ */
+
+public final class StemTable
+{
+  private static final int MAGIC = 0x49445354;
+  private static final int VERSION = 1;
+  private static final int UNCHANGED = -1;
+
+  private final MappedTable table;
+  private final ByteBuffer buf;
+
+  private StemTable(ByteBuffer buf) {
+    table = new MappedTable(buf, MAGIC, VERSION, "stem table");
+    this.buf = buf;
+  }
+
+  /** Maps a table written by write(). */
+  public static StemTable open(Path file) throws IOException {
+    return new StemTable(MappedTable.map(file));
+  }
+
+  /** Stems the vocabulary with the rules in force and writes the table to file. */
+  public static void write(Iterable<? extends CharSequence> vocabulary, Path file) throws IOException {
+    MappedTable.write(build(vocabulary), file);
+  }
+
+  /** Builds a table of the vocabulary in a direct buffer, without a file. */
+  public static StemTable of(Iterable<? extends CharSequence> vocabulary) {
+    return new StemTable(build(vocabulary));
+  }
+
+  /** Returns the number of words in the table. */
+  public int size() { return table.size; }
+
+  /** Returns the stem of word, or null if word is not in the table. */
+  public String get(CharSequence word) {
+    char[] w = word.toString().toCharArray();
+    char[] out = new char[w.length];
+    int hit = get(w, 0, w.length, out);
+    return hit < 0 ? null : new String(out, 0, hit >>> 1);
+  }
+
+  /**
+   * Looks up word[off..off+len-1] and, if it is in the table, copies its
+   * stem to the start of out and returns the stem length shifted left by
+   * one, with the low bit set if the stem differs from the word.  Returns
+   * -1 if the word is not in the table.  out must hold len chars.  This
+   * is the same contract as StemCache.get().
+   */
+  int get(char[] word, int off, int len, char[] out) {
+    int h = hash(word, off, len);
+    for (int i = table.next(h, 0); i >= 0; i = table.next(h, i+1)) {
+      int p = table.entry(h, i);
+      if (buf.getChar(p) != len)
+        continue;
+      int o = 0;
+      while (o < len && buf.getChar(p + 6 + 2*o) == word[off+o])
+        o++;
+      if (o < len)
+        continue;
+      int stem = buf.getInt(p + 2);
+      if (stem == UNCHANGED) {
+        System.arraycopy(word, off, out, 0, len);
+        return len << 1;
+      }
+      int q = table.data(stem);
+      int n = buf.getChar(q);
+      for (o = 0; o < n; o++)
+        out[o] = buf.getChar(q + 2 + 2*o);
+      return n << 1 | 1;
+    }
+    return -1;
+  }
+
+  private static int hash(char[] s, int off, int len) {
+    int h = 0;
+    for (int o = off; o < off+len; o++)
+      h = 31*h + s[o];
+    return MappedTable.mix(h);
+  }
+
+  private static ByteBuffer build(Iterable<? extends CharSequence> vocabulary) {
+    Indo s = new Indo();
+    Map<String, String> stems = new LinkedHashMap<String, String>();
+    for (CharSequence v : vocabulary) {
+      String w = v.toString();
+      if (w.length() == 0 || w.length() > Character.MAX_VALUE || stems.containsKey(w))
+        continue;
+      char[] c = w.toCharArray();
+      stems.put(w, s.stem(c, 0, c.length)
+                ? new String(s.getResultBuffer(), s.getResultOffset(), s.getResultLength())
+                : null);
+    }
+
+    Map<String, Integer> pool = new HashMap<String, Integer>();
+    List<String> roots = new ArrayList<String>();
+    long words = 0;
+    for (Map.Entry<String, String> e : stems.entrySet()) {
+      words += 6 + 2L*e.getKey().length();
+      if (e.getValue() != null && !pool.containsKey(e.getValue())) {
+        pool.put(e.getValue(), -1);
+        roots.add(e.getValue());
+      }
+    }
+    long at = words;
+    for (String r : roots) {
+      pool.put(r, (int) at);
+      at += 2 + 2L*r.length();
+    }
+
+    ByteBuffer b = MappedTable.allocate(MAGIC, VERSION, MappedTable.slotsFor(stems.size()),
+                                        stems.size(), at, "stem table");
+    int data = MappedTable.data(b, 0);
+    int p = 0;
+    for (Map.Entry<String, String> e : stems.entrySet()) {
+      char[] w = e.getKey().toCharArray();
+      MappedTable.insert(b, hash(w, 0, w.length), p);
+      b.putChar(data + p, (char) w.length);
+      b.putInt(data + p + 2, e.getValue() == null ? UNCHANGED : pool.get(e.getValue()));
+      for (int o = 0; o < w.length; o++)
+        b.putChar(data + p + 6 + 2*o, w[o]);
+      p += 6 + 2*w.length;
+    }
+    for (String r : roots) {
+      b.putChar(data + p, (char) r.length());
+      for (int o = 0; o < r.length(); o++)
+        b.putChar(data + p + 2 + 2*o, r.charAt(o));
+      p += 2 + 2*r.length();
+    }
+    return b;
+  }
+
+  /** Builds a table from a vocabulary file: StemTable words.txt stems.tbl */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage: StemTable words.txt stems.tbl");
+      System.exit(2);
+    }
+    List<String> words = new ArrayList<String>();
+    try (BufferedReader in = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+      for (String line; (line = in.readLine()) != null; )
+        for (String w : line.trim().split("\\s+"))
+          if (w.length() > 0)
+            words.add(w);
+    }
+    Path out = Paths.get(args[1]);
+    write(words, out);
+    System.out.println(open(out).size() + " words written to " + out);
+  }
+}
@@ -0,0 +1,127 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A Writer that stems the text written to it on the way to another
+ * Writer.
+ *
+ * A word is a run of letters and hyphens, as in the original Indo.main;
+ * it is lower-cased and stemmed when the first character after it
+ * arrives, so text may be written in pieces of any size and a word may
+ * be split between two writes.  In PRESERVE mode everything between the
+ * words is passed through unchanged.  In TOKENS mode it is dropped and
+ * each stem is written on a line of its own.
+ *
+ * flush() does not end a pending word, since more of it may follow;
+ * endWord() or close() does.
+ */
+
+public final class StemmingWriter extends Writer
+{
+  /** What to write besides the stems. */
+  public enum Mode { PRESERVE, TOKENS }
+
+  private final Writer out;
+  private final Indo stemmer;
+  private final Mode mode;
+  private char[] word = new char[64];
+  private int length;
+
+  public StemmingWriter(Writer out, Mode mode) {
+    this(out, new Indo(), mode);
+  }
+
+  /**
+   * Creates a writer that stems with the given engine, for instance one
+   * with a cache or a lexicon installed.  The engine must not be used by
+   * anything else while this writer is open.
+   */
+  public StemmingWriter(Writer out, Indo stemmer, Mode mode) {
+    this.out = out;
+    this.stemmer = stemmer;
+    this.mode = mode;
+  }
+
+  /** Tells whether c belongs to a word. */
+  static boolean isWordChar(char c) {
+    return Character.isLetter(c) || c == '-';
+  }
+
+  public void write(char[] cbuf, int off, int len) throws IOException {
+    int end = off + len;
+    int run = off;  /* start of the pending non-word text */
+    for (int o = off; o < end; o++) {
+      char c = cbuf[o];
+      if (isWordChar(c)) {
+        if (mode == Mode.PRESERVE && run < o)
+          out.write(cbuf, run, o-run);
+        run = o+1;
+        if (length == word.length) {
+          char[] w = new char[word.length*2];
+          System.arraycopy(word, 0, w, 0, length);
+          word = w;
+        }
+        word[length++] = Character.toLowerCase(c);
+      } else if (length > 0) {
+        endWord();
+      }
+    }
+    if (mode == Mode.PRESERVE && run < end)
+      out.write(cbuf, run, end-run);
+  }
+
+  public void write(int c) throws IOException {
+    char[] one = { (char) c };
+    write(one, 0, 1);
+  }
+
+  public void write(String str, int off, int len) throws IOException {
+    char[] s = new char[len];
+    str.getChars(off, off+len, s, 0);
+    write(s, 0, len);
+  }
+
+  /** Stems and writes the pending word, if any. */
+  public void endWord() throws IOException {
+    if (length == 0)
+      return;
+    if (stemmer.stem(word, 0, length))
+      out.write(stemmer.getResultBuffer(), stemmer.getResultOffset(), stemmer.getResultLength());
+    else
+      out.write(word, 0, length);
+    if (mode == Mode.TOKENS)
+      out.write('\n');
+    length = 0;
+  }
+
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+  public void close() throws IOException {
+    try {
+      endWord();
+    } finally {
+      out.close();
+    }
+  }
+}
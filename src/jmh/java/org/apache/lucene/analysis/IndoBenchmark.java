@@ -0,0 +1,177 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmark of the stemmer's hot paths, to show what a change to the
+ * rules or to their implementation costs.
+ *
+ *   mvn -Pjmh package
+ *   java -jar target/benchmarks.jar IndoBenchmark -prof gc
+ *
+ * Each stage is timed on its own over several word sets: plain roots,
+ * heavily affixed words and reduplications.  A score is the time per
+ * word, as every invocation runs the stage once over the whole set;
+ * -prof gc adds the bytes allocated per word (gc.alloc.rate.norm divided
+ * by the set size).  The stages that need a word in the engine load it
+ * first with Indo.load(), whose own cost is given by load().  sukukata()
+ * counts syllables on the engine's own buffer, as berakhiran() and
+ * berawalan() do, so it measures the per-word syllable profile and not
+ * the plain scan used for other arrays.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class IndoBenchmark
+{
+  static final String[] ROOTS = {
+    "makan", "rumah", "jalan", "buku", "kuku", "laku", "jumlah", "langkah",
+    "pukul", "tulis", "sapu", "kirim", "ambil", "baca", "main", "lari",
+    "belajar", "pikir", "kata", "dasar", "anak", "orang", "kerja", "tahu",
+  };
+
+  static final String[] AFFIXED = {
+    "pengertianmukah", "mempermainkannya", "diperdengarkan", "keberhasilannya",
+    "menyelesaikan", "pembelajaran", "berkesinambungan", "ketidakadilan",
+    "memperhatikanlah", "penggunaannya", "dikerjakanpun", "mengambilnya",
+    "pemberitahuan", "menuliskan", "terbacakah", "sepengetahuanku",
+    "berjumlah", "membelah", "memukulkan", "menyapukan", "pengirimannya",
+    "menjalankan", "pembacaan", "kepercayaan",
+  };
+
+  static final String[] REDUPLICATED = {
+    "berabad-abad", "mengata-ngatai", "ahli-ahli", "ambil-mengambil",
+    "dibagi-bagikan", "berlain-lain", "teka-teki", "memaki-maki",
+    "buku-bukunya", "ke-Allahan", "sayur-mayur", "bolak-balik",
+    "tolong-menolong", "kemerah-merahan", "sebaik-baiknya", "anak-anak",
+    "rumah-rumah", "jalan-jalan", "hati-hati", "kira-kira",
+    "sia-sia", "kupu-kupu", "laki-laki", "mata-mata",
+  };
+
+  /* every set has this many words, so that the scores compare */
+  private static final int WORDS = 24;
+
+  @Param({"roots", "affixed", "reduplicated"})
+  public String words;
+
+  private String[] strings;
+  private char[][] chars;
+  private Indo s;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    strings = words.equals("roots") ? ROOTS : words.equals("affixed") ? AFFIXED : REDUPLICATED;
+    if (strings.length != WORDS)
+      throw new IllegalStateException(words + " has " + strings.length + " words, not " + WORDS);
+    chars = new char[WORDS][];
+    for (int z = 0; z < WORDS; z++)
+      chars[z] = strings[z].toCharArray();
+    s = new Indo();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(WORDS)
+  public void stemString(Blackhole bh) {
+    for (int z = 0; z < WORDS; z++)
+      bh.consume(s.stem(strings[z]));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(WORDS)
+  public void stemChars(Blackhole bh) {
+    for (int z = 0; z < WORDS; z++) {
+      char[] w = chars[z];
+      bh.consume(s.stem(w, 0, w.length));
+      bh.consume(s.getResultLength());
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(WORDS)
+  public void load(Blackhole bh) {
+    for (int z = 0; z < WORDS; z++) {
+      char[] w = chars[z];
+      s.load(w, 0, w.length);
+      bh.consume(s.getResultBuffer());
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(WORDS)
+  public void berakhiran(Blackhole bh) {
+    for (int z = 0; z < WORDS; z++) {
+      char[] w = chars[z];
+      s.load(w, 0, w.length);
+      bh.consume(s.berakhiran());
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(WORDS)
+  public void berawalan(Blackhole bh) {
+    for (int z = 0; z < WORDS; z++) {
+      char[] w = chars[z];
+      s.load(w, 0, w.length);
+      bh.consume(s.berawalan());
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(WORDS)
+  public void sukukata(Blackhole bh) {
+    for (int z = 0; z < WORDS; z++) {
+      char[] w = chars[z];
+      s.load(w, 0, w.length);
+      char[] b = s.getResultBuffer();
+      bh.consume(s.sukukata(b, 0, w.length));
+      bh.consume(s.sukukata(b, 1, w.length));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(WORDS)
+  public void reduplikasi(Blackhole bh) {
+    for (int z = 0; z < WORDS; z++) {
+      char[] w = chars[z];
+      s.load(w, 0, w.length);
+      s.reduplikasiSaja();
+      bh.consume(s.getResultLength());
+    }
+  }
+}
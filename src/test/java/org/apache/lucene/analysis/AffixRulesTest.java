@@ -0,0 +1,63 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class AffixRulesTest
+{
+  @Test
+  public void builtInCopyMatchesTheRuleFile() throws Exception {
+    List<String> lines = new ArrayList<String>();
+    try (InputStream in = AffixRules.class.getResourceAsStream(AffixRules.RESOURCE);
+         BufferedReader r = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      for (String line; (line = r.readLine()) != null; ) {
+        int hash = line.indexOf('#');
+        if (hash >= 0)
+          line = line.substring(0, hash);
+        line = line.replaceAll("\\s+$", "");
+        if (line.length() > 0)
+          lines.add(line);
+      }
+    }
+    assertEquals(lines, Arrays.asList(BuiltInRules.LINES));
+  }
+
+  @Test
+  public void builtInCopyStemsTheGoldenList() throws Exception {
+    String golden = Paths.get(AffixRulesTest.class.getResource("golden-stems.tsv").toURI()).toString();
+    AffixRules old = AffixRules.install(AffixRules.embedded());
+    try {
+      assertTrue(GoldenStems.verify(golden, null, null, null, 1));
+    } finally {
+      AffixRules.install(old);
+    }
+  }
+}
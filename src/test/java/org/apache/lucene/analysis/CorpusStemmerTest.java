@@ -0,0 +1,125 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CorpusStemmerTest
+{
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private static final String[] WORDS = {
+    "Pengertianmukah", "mempermainkannya", "berabad-abad", "ahli-ahli", "makanan",
+    "rumah", "dibagi-bagikan", "ke-Allahan", "menyelesaikan,", "buku-nya.",
+  };
+
+  private static String text(int file) {
+    StringBuilder sb = new StringBuilder();
+    for (int z = 0; z < 30 + file % 17; z++)
+      sb.append(WORDS[(file + z) % WORDS.length]).append(z % 7 == 6 ? "\n" : " ");
+    /* no whitespace at the end: the last word must still end with its file */
+    return sb.append("memukulkan").toString();
+  }
+
+  private static String expected(List<String> texts, StemmingWriter.Mode mode) throws IOException {
+    StringWriter out = new StringWriter();
+    StemmingWriter w = new StemmingWriter(out, mode);
+    for (String t : texts) {
+      w.write(t);
+      w.endWord();
+    }
+    w.close();
+    return out.toString();
+  }
+
+  @Test
+  public void manySmallFilesStayInOrder() throws Exception {
+    List<Path> files = new ArrayList<Path>();
+    List<String> texts = new ArrayList<String>();
+    for (int f = 0; f < 200; f++) {
+      String t = text(f);
+      Path p = tmp.newFile("f" + f + ".txt").toPath();
+      Files.write(p, t.getBytes(StandardCharsets.UTF_8));
+      files.add(p);
+      texts.add(t);
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      for (StemmingWriter.Mode mode : StemmingWriter.Mode.values()) {
+        for (int chunk : new int[] { 16, 100, 1 << 20 }) {
+          CorpusStemmer corpus = new CorpusStemmer(pool, mode);
+          corpus.setChunkSize(chunk);
+          StringWriter out = new StringWriter();
+          corpus.stem(files, out);
+          assertEquals(mode + " in chunks of " + chunk, expected(texts, mode), out.toString());
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static String stem(String text, int chunk) throws IOException {
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    try {
+      CorpusStemmer corpus = new CorpusStemmer(pool, StemmingWriter.Mode.PRESERVE);
+      corpus.setChunkSize(chunk);
+      StringWriter out = new StringWriter();
+      corpus.stem(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), out);
+      return out.toString();
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void textWithoutWhitespaceIsCutAtPunctuation() throws Exception {
+    StringBuilder sb = new StringBuilder();
+    for (int z = 0; z < 500; z++)
+      sb.append(WORDS[z % WORDS.length]).append(z % 3 == 0 ? ";" : ",");
+    String text = sb.toString();
+    List<String> texts = new ArrayList<String>();
+    texts.add(text);
+    assertEquals(expected(texts, StemmingWriter.Mode.PRESERVE), stem(text, 64));
+  }
+
+  @Test
+  public void oneEndlessWordIsCutBetweenCharacters() throws Exception {
+    StringBuilder sb = new StringBuilder();
+    for (int z = 0; z < 5000; z++)
+      sb.append("\u00e9");
+    /* two bytes a letter: a cut inside one would show up as U+FFFD */
+    assertEquals(sb.toString(), stem(sb.toString(), 101));
+  }
+}
@@ -0,0 +1,46 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+/**
+ * Stems the golden word list again and compares every stem with the one
+ * recorded from the original stemmer; see GoldenStems.
+ */
+public class GoldenStemsTest
+{
+  private static String golden() throws Exception {
+    return Paths.get(GoldenStemsTest.class.getResource("golden-stems.tsv").toURI()).toString();
+  }
+
+  @Test
+  public void stemsMatchTheGoldenList() throws Exception {
+    assertTrue(GoldenStems.verify(golden(), null, null, null, 1));
+  }
+
+  @Test
+  public void stemsMatchThroughASharedCacheOnSeveralThreads() throws Exception {
+    StemCache cache = new StemCache(1000, StemCache.Policy.TINY_LFU);
+    assertTrue(GoldenStems.verify(golden(), cache, null, null, 3));
+  }
+}
@@ -0,0 +1,119 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.junit.Test;
+
+/**
+ * Checks that a warm Indo stems without allocating, as the doc comment of
+ * stem(char[], int, int) promises: once its buffers have grown to the
+ * longest word, stemming works on index ranges alone.
+ *
+ * The bytes are counted by the JVM for the test thread, so the check is
+ * skipped on a JVM that does not count them.  A few hundred bytes are
+ * allowed for whatever the JVM itself allocates on the thread now and
+ * then; one object per word would be millions.
+ */
+public class IndoAllocationTest
+{
+  static final String[] WORDS = {
+    "makan", "rumah", "buku", "kuku", "jumlah", "langkah", "belajar", "ke",
+    "pengertianmukah", "mempermainkannya", "diperdengarkan", "keberhasilannya",
+    "menyelesaikan", "memperhatikanlah", "penggunaannya", "dikerjakanpun",
+    "memukulkan", "menyapukan", "sepengetahuanku", "terbacakah",
+    "berabad-abad", "mengata-ngatai", "ahli-ahli", "ahli-ahlimu", "ambil-mengambil",
+    "dibagi-bagikan", "berlain-lain", "teka-teki", "memaki-maki", "buku-nya",
+    "ke-Allahan", "kemerah-merahan", "sebaik-baiknya", "Jakarta", "x",
+  };
+
+  private static final int ROUNDS = 20000;
+  private static final long SLACK = 1024;
+
+  private static long sink;
+
+  private static com.sun.management.ThreadMXBean counter() {
+    ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+    assumeTrue(mx instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) mx;
+    assumeTrue(sun.isThreadAllocatedMemorySupported());
+    if (!sun.isThreadAllocatedMemoryEnabled())
+      sun.setThreadAllocatedMemoryEnabled(true);
+    return sun;
+  }
+
+  private static char[][] words() {
+    char[][] w = new char[WORDS.length][];
+    for (int z = 0; z < w.length; z++)
+      w[z] = WORDS[z].toCharArray();
+    return w;
+  }
+
+  private static void stemAll(Indo s, char[][] words, int rounds) {
+    for (int r = 0; r < rounds; r++)
+      for (char[] w : words)
+        if (s.stem(w, 0, w.length))
+          sink += s.getResultLength();
+  }
+
+  @Test
+  public void warmStemAllocatesNothing() {
+    com.sun.management.ThreadMXBean mx = counter();
+    long thread = Thread.currentThread().getId();
+    char[][] words = words();
+    Indo s = new Indo();
+    stemAll(s, words, ROUNDS);
+
+    long before = mx.getThreadAllocatedBytes(thread);
+    stemAll(s, words, ROUNDS);
+    long bytes = mx.getThreadAllocatedBytes(thread) - before;
+    assertTrue(bytes + " bytes allocated for " + ROUNDS * words.length + " stems",
+               bytes < SLACK);
+  }
+
+  @Test
+  public void warmStemAllAllocatesNothing() {
+    com.sun.management.ThreadMXBean mx = counter();
+    long thread = Thread.currentThread().getId();
+    char[][] words = words();
+    StringBuilder sb = new StringBuilder();
+    int[] offsets = new int[words.length], lengths = new int[words.length];
+    for (int z = 0; z < words.length; z++) {
+      offsets[z] = sb.length();
+      lengths[z] = words[z].length;
+      sb.append(words[z]);
+    }
+    char[] text = sb.toString().toCharArray();
+    char[] out = new char[text.length];
+    int[] outOffsets = new int[words.length], outLengths = new int[words.length];
+    Indo s = new Indo();
+    for (int r = 0; r < ROUNDS; r++)
+      sink += s.stemAll(text, offsets, lengths, words.length, out, 0, outOffsets, outLengths);
+
+    long before = mx.getThreadAllocatedBytes(thread);
+    for (int r = 0; r < ROUNDS; r++)
+      sink += s.stemAll(text, offsets, lengths, words.length, out, 0, outOffsets, outLengths);
+    long bytes = mx.getThreadAllocatedBytes(thread) - before;
+    assertTrue(bytes + " bytes allocated for " + ROUNDS + " batches", bytes < SLACK);
+  }
+}
@@ -0,0 +1,51 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.junit.Test;
+
+public class IndoAnalyzerTest
+{
+  private static List<String> terms(Analyzer a, String text) throws IOException {
+    List<String> terms = new ArrayList<String>();
+    try (TokenStream ts = a.tokenStream("f", text)) {
+      CharTermAttribute term = ts.addAttribute(CharTermAttribute.class);
+      ts.reset();
+      while (ts.incrementToken())
+        terms.add(term.toString());
+      ts.end();
+    }
+    return terms;
+  }
+
+  @Test
+  public void lowerCasesAndStemsWholeReduplications() throws IOException {
+    try (Analyzer a = new IndoAnalyzer()) {
+      assertEquals(Arrays.asList("ahli", "abad", "makan", "main"),
+                   terms(a, "Ahli-ahli, BERABAD-ABAD makanan; mempermainkan."));
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Stems with a small RootLexicon installed, checking that the lexicon
+ * keeps roots whole, finds them behind affixes, and gives back the
+ * letter a nasal prefix replaced.
+ */
+public class IndoLexiconTest
+{
+  private static final RootLexicon LEXICON = RootLexicon.of(Arrays.asList(
+    "pukul", "sapu", "tulis", "kirim", "jumlah", "kelapa", "perintah", "pesawat"));
+
+  private static String stem(Indo s, String word) {
+    char[] w = word.toCharArray();
+    return s.stem(w, 0, w.length)
+      ? new String(s.getResultBuffer(), s.getResultOffset(), s.getResultLength())
+      : word;
+  }
+
+  private static Indo withLexicon() {
+    Indo s = new Indo();
+    s.setLexicon(LEXICON);
+    return s;
+  }
+
+  @Test
+  public void leavesARootWhole() {
+    Indo s = withLexicon();
+    assertEquals("kelapa", stem(s, "kelapa"));
+    assertEquals("perintah", stem(s, "perintah"));
+    /* which the rules alone would cut */
+    assertEquals("lapa", stem(new Indo(), "kelapa"));
+  }
+
+  @Test
+  public void findsARootBehindItsAffixes() {
+    Indo s = withLexicon();
+    assertEquals("jumlah", stem(s, "berjumlah"));
+    assertEquals("pesawat", stem(s, "pesawatnya"));
+    assertEquals("berjum", stem(new Indo(), "berjumlah"));
+  }
+
+  @Test
+  public void givesBackTheLetterANasalReplaced() {
+    Indo s = withLexicon();
+    assertEquals("pukul", stem(s, "memukul"));
+    assertEquals("sapu", stem(s, "menyapu"));
+    assertEquals("tulis", stem(s, "menulis"));
+    assertEquals("kirim", stem(s, "mengirim"));
+    assertEquals("pukul", stem(s, "memukulnya"));
+    assertEquals("mukul", stem(new Indo(), "memukul"));
+  }
+
+  @Test
+  public void stemsWordsWithoutARootInTheLexiconAsUsual() {
+    Indo s = withLexicon();
+    for (String w : new String[] { "makanan", "mempermainkan", "berabad-abad", "pelajar" })
+      assertEquals(w, stem(new Indo(), w), stem(s, w));
+  }
+}
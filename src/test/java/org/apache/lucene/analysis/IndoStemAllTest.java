@@ -0,0 +1,127 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+import org.junit.Test;
+
+/**
+ * Checks Indo.stemAll(CharBuffer, char, CharBuffer) against stem(String)
+ * word by word: the n-th stem out must belong to the n-th word in, empty
+ * words between, before and after separators included, whether the
+ * tokens sit in a heap buffer or in a direct one read through a scratch
+ * array.
+ */
+public class IndoStemAllTest
+{
+  private static final String[] TEXTS = {
+    "mempermainkannya|rumah|berabad-abad|ke-Allahan",
+    "|memukulkan|buku-nya",
+    "makanan|dibagi-bagikan|",
+    "ahli-ahli||||menyelesaikan",
+    "|",
+    "||",
+    "pengertianmukah",
+    "x|",
+  };
+
+  /* What stemAll should write: each word stemmed by stem(String). */
+  private static String expected(String text) {
+    Indo s = new Indo();
+    String[] words = text.split("\\|", -1);
+    StringBuilder sb = new StringBuilder();
+    for (int z = 0; z < words.length; z++) {
+      if (z > 0)
+        sb.append('|');
+      sb.append(s.stem(words[z]));
+    }
+    return sb.toString();
+  }
+
+  private static CharBuffer direct(String text, int before) {
+    CharBuffer d = ByteBuffer.allocateDirect(2 * (before + text.length())).asCharBuffer();
+    for (int z = 0; z < before; z++)
+      d.put('#');
+    d.put(text);
+    d.flip();
+    d.position(before);
+    return d;
+  }
+
+  private static void check(Indo s, CharBuffer tokens, String text) {
+    CharBuffer out = CharBuffer.allocate(text.length());
+    int n = s.stemAll(tokens, '|', out);
+    out.flip();
+    assertEquals(text, text.split("\\|", -1).length, n);
+    assertEquals(text, expected(text), out.toString());
+    assertEquals(text, tokens.limit(), tokens.position());
+  }
+
+  @Test
+  public void emptyWordsKeepTheirPlace() {
+    Indo s = new Indo();
+    for (String text : TEXTS)
+      check(s, CharBuffer.wrap(text), text);
+  }
+
+  @Test
+  public void heapBufferWithAnOffset() {
+    Indo s = new Indo();
+    for (String text : TEXTS) {
+      char[] a = ("##" + text + "##").toCharArray();
+      /* a slice has an array offset, and the words start past it */
+      CharBuffer tokens = CharBuffer.wrap(a, 1, a.length - 2).slice();
+      tokens.position(1);
+      tokens.limit(1 + text.length());
+      check(s, tokens, text);
+    }
+  }
+
+  @Test
+  public void directBufferGoesThroughScratch() {
+    Indo s = new Indo();
+    for (String text : TEXTS)
+      check(s, direct(text, 3), text);
+    /* a word longer than the first scratch array */
+    String longer = "mempermainkannya|memperhatikanlahmempermainkannya|";
+    check(s, direct(longer, 0), longer);
+  }
+
+  @Test
+  public void cachedStemsAreWrittenToo() {
+    Indo s = new Indo();
+    s.setCache(new StemCache(64, StemCache.Policy.LRU));
+    for (int round = 0; round < 2; round++)
+      for (String text : TEXTS) {
+        check(s, CharBuffer.wrap(text), text);
+        check(s, direct(text, 0), text);
+      }
+  }
+
+  @Test
+  public void emptyBufferHasNoWords() {
+    Indo s = new Indo();
+    CharBuffer out = CharBuffer.allocate(4);
+    assertEquals(0, s.stemAll(CharBuffer.allocate(0), '|', out));
+    assertEquals(0, out.position());
+  }
+}
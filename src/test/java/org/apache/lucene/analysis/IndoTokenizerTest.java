@@ -0,0 +1,109 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class IndoTokenizerTest
+{
+  /* "stem@start-end" for every word */
+  private static List<String> tokens(IndoTokenizer t) throws IOException {
+    List<String> out = new ArrayList<String>();
+    while (t.next())
+      out.add(t.term() + "@" + t.startOffset() + "-" + t.endOffset());
+    return out;
+  }
+
+  private static List<String> tokens(String text) throws IOException {
+    IndoTokenizer t = new IndoTokenizer();
+    t.reset(text);
+    return tokens(t);
+  }
+
+  /* Hands out at most three chars a read, so words straddle every refill. */
+  private static Reader trickle(String text) {
+    return new StringReader(text) {
+      public int read(char[] cbuf, int off, int len) throws IOException {
+        return super.read(cbuf, off, Math.min(len, 3));
+      }
+    };
+  }
+
+  @Test
+  public void reportsStemsWithTheirSourceOffsets() throws IOException {
+    assertEquals(Arrays.asList("ahli@0-9", "abad@11-23", "makan@25-32"),
+                 tokens("Ahli-ahli, BERABAD-ABAD (makanan)"));
+  }
+
+  @Test
+  public void joinsOnlyHyphensBetweenLetters() throws IOException {
+    assertEquals(Arrays.asList("buku@0-4", "nya@6-9"), tokens("buku--nya"));
+    assertEquals(Arrays.asList("abad@0-4", "ini@6-9"), tokens("abad- ini"));
+    assertEquals(Arrays.asList("nya@1-4"), tokens("-nya"));
+    assertEquals(Arrays.asList("abad@0-12"), tokens("berabad-abad-"));
+  }
+
+  @Test
+  public void takesUnicodeHyphensForHyphens() throws IOException {
+    assertEquals(Arrays.asList("ahli@0-9", "abad@10-22"),
+                 tokens("ahli\u2010ahli berabad\u2011abad"));
+  }
+
+  @Test
+  public void readsWordsAcrossRefills() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int z = 0; z < 2000; z++)
+      sb.append(z % 5 == 0 ? "Berabad-abad, " : z % 3 == 0 ? "ahli--mu " : "mempermainkan ");
+    String text = sb.toString();
+    IndoTokenizer t = new IndoTokenizer();
+    t.reset(trickle(text));
+    List<String> read = tokens(t);
+    assertEquals(tokens(text), read);
+    /* and through the tokenizer's own 8192-char buffer */
+    t.reset(new StringReader(text));
+    assertEquals(read, tokens(t));
+  }
+
+  private static String writer(String text) throws IOException {
+    StringWriter out = new StringWriter();
+    StemmingWriter w = new StemmingWriter(out, StemmingWriter.Mode.TOKENS);
+    w.write(text);
+    w.close();
+    return out.toString();
+  }
+
+  @Test
+  public void keepsHyphensOutOfWordsUnlikeStemmingWriter() throws IOException {
+    /* StemmingWriter, like Indo.main before it, takes any run of letters
+       and hyphens as a word, and the rules reduce "abad-" to nothing */
+    assertEquals("\n-nya\n", writer("abad- -nya"));
+    assertEquals("buku-\n", writer("buku--nya"));
+    assertEquals(Arrays.asList("abad@0-4", "nya@7-10"), tokens("abad- -nya"));
+    assertEquals(Arrays.asList("buku@0-4", "nya@6-9"), tokens("buku--nya"));
+  }
+}
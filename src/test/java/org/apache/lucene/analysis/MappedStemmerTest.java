@@ -0,0 +1,98 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedStemmerTest
+{
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  /* Letters of one, two and three bytes, and a four-byte non-letter. */
+  private static final String TEXT =
+    "Mempermainkan café-café, berabad‑abad; ṣahnya 😀 dibagi-bagikan"
+    + " Pengertianmukah\nÉLÉVE-élèves ke-Allahan buku-nya. makénan";
+
+  private byte[] mapped(byte[] bytes, int window, StemmingWriter.Mode mode) throws IOException {
+    Path f = tmp.newFile().toPath();
+    Files.write(f, bytes);
+    MappedStemmer m = new MappedStemmer(new Indo(), mode);
+    m.setWindowSize(window);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    m.stem(f, Channels.newChannel(out));
+    return out.toByteArray();
+  }
+
+  private static String written(String text, StemmingWriter.Mode mode) throws IOException {
+    StringWriter out = new StringWriter();
+    StemmingWriter w = new StemmingWriter(out, mode);
+    w.write(text);
+    w.close();
+    return out.toString();
+  }
+
+  @Test
+  public void matchesStemmingWriterWhateverTheWindow() throws IOException {
+    byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+    for (StemmingWriter.Mode mode : StemmingWriter.Mode.values()) {
+      String expected = written(TEXT, mode);
+      for (int window : new int[] { 4, 5, 6, 7, 13, 1 << 16 })
+        assertEquals(mode + " in windows of " + window, expected,
+                     new String(mapped(bytes, window, mode), StandardCharsets.UTF_8));
+    }
+  }
+
+  private static byte[] bytes(int... b) {
+    byte[] s = new byte[b.length];
+    for (int z = 0; z < b.length; z++)
+      s[z] = (byte) b[z];
+    return s;
+  }
+
+  @Test
+  public void replacesEachMalformedByte() throws IOException {
+    /* "ab", a lone continuation byte, "c", an invalid byte, "d", an
+       overlong encoding of '/', "e" */
+    byte[] bad = bytes('a', 'b', 0x80, 'c', 0xFF, 'd', 0xC0, 0xAF, 'e');
+    for (int window : new int[] { 4, 5, 1 << 16 })
+      assertEquals("ab\uFFFDc\uFFFDd\uFFFD\uFFFDe",
+                   new String(mapped(bad, window, StemmingWriter.Mode.PRESERVE), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void replacesASequenceCutShortByTheEndOfTheFile() throws IOException {
+    /* "kata " then the first two of the three bytes of U+1E63 */
+    byte[] cut = bytes('k', 'a', 't', 'a', ' ', 0xE1, 0xB9);
+    for (int window : new int[] { 4, 6, 1 << 16 })
+      assertEquals("kata \uFFFD\uFFFD",
+                   new String(mapped(cut, window, StemmingWriter.Mode.PRESERVE), StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,77 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class MappedTableTest
+{
+  @Test
+  public void lexiconAndStemTableRoundTripThroughFiles() throws Exception {
+    Path dir = Files.createTempDirectory("mapped");
+    try {
+      Path lex = dir.resolve("roots.lex");
+      RootLexicon.write(Arrays.asList("kuku", "Jumlah", "pukul"), lex);
+      RootLexicon l = RootLexicon.open(lex);
+      assertEquals(3, l.size());
+      assertTrue(l.contains("jumlah"));
+      assertTrue(l.contains('p', "ukul".toCharArray(), 0, 4));
+      assertFalse(l.contains("kukuh"));
+
+      Path tbl = dir.resolve("stems.tbl");
+      StemTable.write(Arrays.asList("makanan", "makan", "dimakan"), tbl);
+      StemTable t = StemTable.open(tbl);
+      assertEquals(3, t.size());
+      assertEquals("makan", t.get("makanan"));
+      assertEquals("makan", t.get("makan"));
+      assertNull(t.get("minum"));
+    } finally {
+      for (String f : new String[] { "roots.lex", "stems.tbl" })
+        Files.deleteIfExists(dir.resolve(f));
+      Files.delete(dir);
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void probeEndsWhenEverySlotIsFull() throws Exception {
+    /* a corrupt lexicon whose two slots both hold an entry with another hash */
+    ByteBuffer b = MappedTable.allocate(0x49444C58, 1, 2, 2, 4, "root lexicon");
+    int h = MappedTable.mix(31*'x' + 'y');
+    b.putInt(MappedTable.HEADER, h+1).putInt(MappedTable.HEADER + 4, 1);
+    b.putInt(MappedTable.HEADER + 8, h+1).putInt(MappedTable.HEADER + 12, 1);
+    assertEquals(-1, new MappedTable(b, 0x49444C58, 1, "root lexicon").next(h, 0));
+
+    Path lex = Files.createTempFile("corrupt", ".lex");
+    try {
+      MappedTable.write(b, lex);
+      assertFalse(RootLexicon.open(lex).contains("xy"));
+    } finally {
+      Files.delete(lex);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class StemAnalysisTest
+{
+  private static StemAnalysis analyze(String word) {
+    return analyze(new Indo(), word);
+  }
+
+  private static StemAnalysis analyze(Indo s, String word) {
+    char[] w = word.toCharArray();
+    StemAnalysis a = new StemAnalysis();
+    s.analyze(w, 0, w.length, a);
+    return a;
+  }
+
+  private static void prefix(StemAnalysis a, String root, String prefix, boolean stacked) {
+    assertEquals(root, a.getRoot());
+    assertEquals(root, prefix, a.getPrefix());
+    assertEquals(root, stacked, a.isStackedPrefix());
+  }
+
+  private static void check(String word, String root, String prefix, String suffix,
+                            String clitic, String particle, int reduplication) {
+    StemAnalysis a = analyze(word);
+    assertEquals(word, root, a.getRoot());
+    assertEquals(word, prefix, a.getPrefix());
+    assertEquals(word, suffix, a.getSuffix());
+    assertEquals(word, clitic, a.getClitic());
+    assertEquals(word, particle, a.getParticle());
+    assertEquals(word, reduplication, a.getReduplication());
+  }
+
+  @Test
+  public void reportsTheAffixesOfTheDroppedSecondHalf() {
+    check("ahli-ahlimu", "ahli", "", "", "mu", "", StemAnalysis.DROP_SECOND);
+    check("ahli-ahlinya", "ahli", "", "", "nya", "", StemAnalysis.DROP_SECOND);
+    check("buku-bukumu", "buku", "", "", "mu", "", StemAnalysis.DROP_SECOND);
+    check("rumah-rumahnyalah", "rumah", "", "", "nya", "lah", StemAnalysis.DROP_SECOND);
+  }
+
+  @Test
+  public void reportsNothingThatBelongsToTheRoot() {
+    check("ahli-ahli", "ahli", "", "", "", "", StemAnalysis.DROP_SECOND);
+    check("buku-buku", "buku", "", "", "", "", StemAnalysis.DROP_SECOND);
+  }
+
+  @Test
+  public void reportsOtherReduplications() {
+    check("dibagi-bagikan", "bagi", "di", "kan", "", "", StemAnalysis.AFFIXED);
+    check("berabad-abad", "abad", "ber", "", "", "", StemAnalysis.DROP_FIRST);
+    check("buka-ku", "buka", "", "", "-ku", "", StemAnalysis.CLITIC);
+    check("makanan", "makan", "", "an", "", "", StemAnalysis.NONE);
+  }
+
+  @Test
+  public void reportsThePrefixThatWasActuallyRemoved() {
+    prefix(analyze("mempermainkan"), "main", "memper", true);
+    prefix(analyze("dikerjakan"), "rja", "dike", true);
+    prefix(analyze("sepertinya"), "perti", "se", false);
+    /* the rule for penge- is cut back to peng- */
+    prefix(analyze("pengertiannya"), "erti", "peng", false);
+    /* the rule for se- falls back to a shorter cut */
+    prefix(analyze("seterang"), "rang", "sete", true);
+    prefix(analyze("makanan"), "makan", "", false);
+  }
+
+  @Test
+  public void countsTheNasalARootGivesBackAsRemoved() {
+    Indo s = new Indo();
+    s.setLexicon(RootLexicon.of(Arrays.asList("pukul", "sapu")));
+    prefix(analyze(s, "memukul"), "pukul", "mem", false);
+    prefix(analyze(s, "menyapu"), "sapu", "meny", false);
+  }
+
+  @Test
+  public void leavesOtherHyphenatedWordsAlone() {
+    StemAnalysis a = analyze("bolak-balik");
+    assertEquals("bolak-balik", a.getRoot());
+    assertEquals(StemAnalysis.OTHER, a.getReduplication());
+    assertEquals(StemAnalysis.OTHER, analyze("teka-teki").getReduplication());
+    assertTrue(analyze("ahli-ahli").isReduplicated());
+    assertFalse(analyze("buka-ku").isReduplicated());
+  }
+}
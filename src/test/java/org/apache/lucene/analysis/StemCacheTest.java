@@ -0,0 +1,119 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class StemCacheTest
+{
+  /* Looks word up as Indo does; returns its cached stem, or null. */
+  private static String get(StemCache c, String word) {
+    char[] w = word.toCharArray();
+    char[] out = new char[w.length];
+    int hit = c.get(w, 0, w.length, out);
+    return hit < 0 ? null : new String(out, 0, hit >>> 1) + ((hit & 1) != 0 ? "*" : "");
+  }
+
+  private static void put(StemCache c, String word, String stem) {
+    char[] w = word.toCharArray();
+    char[] s = stem.toCharArray();
+    c.put(w, 0, w.length, s, 0, s.length, !word.equals(stem));
+  }
+
+  /* A miss followed by a put, as when Indo stems a word it has not cached. */
+  private static void stem(StemCache c, String word, String stem) {
+    if (get(c, word) == null)
+      put(c, word, stem);
+  }
+
+  @Test
+  public void returnsStemsWithTheirChangedFlag() {
+    StemCache c = new StemCache(10);
+    put(c, "makanan", "makan");
+    put(c, "rumah", "rumah");
+    assertEquals("makan*", get(c, "makanan"));
+    assertEquals("rumah", get(c, "rumah"));
+    assertEquals(null, get(c, "minuman"));
+    assertEquals(2, c.hits());
+    assertEquals(1, c.misses());
+    put(c, "makanan", "makanan");  /* replaces the stem */
+    assertEquals("makanan", get(c, "makanan"));
+    assertEquals(2, c.size());
+    c.clear();
+    assertEquals(0, c.size());
+    assertEquals(null, get(c, "rumah"));
+  }
+
+  @Test
+  public void lruDropsTheLeastRecentlyUsedAtCapacity() {
+    StemCache c = new StemCache(3, StemCache.Policy.LRU);
+    put(c, "satu", "satu");
+    put(c, "dua", "dua");
+    put(c, "tiga", "tiga");
+    get(c, "satu");       /* now dua is the least recent */
+    put(c, "empat", "empat");
+    assertEquals(3, c.size());
+    assertEquals(1, c.evictions());
+    assertEquals(null, get(c, "dua"));
+    assertEquals("satu", get(c, "satu"));
+    assertEquals("tiga", get(c, "tiga"));
+    assertEquals("empat", get(c, "empat"));
+  }
+
+  @Test
+  public void segmentsTogetherHoldTheCapacity() {
+    StemCache c = new StemCache(1000, StemCache.Policy.LRU);
+    for (int z = 0; z < 5000; z++)
+      put(c, "kata" + z, "kata" + z);
+    assertEquals(1000, c.capacity());
+    assertEquals(1000, c.size());
+    assertEquals(4000, c.evictions());
+    assertEquals("kata4999", get(c, "kata4999"));
+  }
+
+  @Test
+  public void tinyLfuKeepsAFrequentWordThroughAFloodOfRareOnes() {
+    for (StemCache.Policy policy : StemCache.Policy.values()) {
+      StemCache c = new StemCache(8, policy);
+      /* a common word, asked for again after every ten words seen once */
+      int hits = 0;
+      for (int z = 0; z < 1000; z++) {
+        if (z % 10 == 0) {
+          if (get(c, "makanan") != null)
+            hits++;
+          else
+            put(c, "makanan", "makan");
+        } else {
+          stem(c, "kata" + z, "kata" + z);
+        }
+      }
+      if (policy == StemCache.Policy.TINY_LFU)
+        assertEquals(99, hits);  /* all but the first */
+      else
+        assertEquals(0, hits);   /* nine new words push it out every time */
+      assertEquals(policy.toString(), 8, c.size());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsACapacityItCannotSize() {
+    new StemCache(StemCache.MAX_ENTRIES + 1);
+  }
+}
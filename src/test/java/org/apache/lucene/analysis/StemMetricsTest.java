@@ -0,0 +1,99 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+public class StemMetricsTest
+{
+  private static Map<String, Long> map(Object... kv) {
+    Map<String, Long> m = new TreeMap<String, Long>();
+    for (int z = 0; z < kv.length; z += 2)
+      m.put((String) kv[z], ((Number) kv[z+1]).longValue());
+    return m;
+  }
+
+  @Test
+  public void countsWhatTheStemmerDid() {
+    Indo s = new Indo();
+    StemMetrics m = new StemMetrics(true);
+    s.setMetrics(m);
+    s.setCache(new StemCache(10));
+    String[] words = { "makanan", "makanan", "rumah", "mempermainkan", "ahli-ahli",
+                       "dibagikannya", "rumahnyalah" };
+    for (String w : words) {
+      char[] c = w.toCharArray();
+      s.stem(c, 0, c.length);
+    }
+
+    assertEquals(7, m.getTokens());
+    assertEquals(6, m.getChanged());       /* all but rumah */
+    assertEquals(1, m.getCacheHits());     /* the second makanan */
+    assertEquals(6, m.getCacheMisses());
+    assertEquals(1 / 7.0, m.getCacheHitRate(), 1e-9);
+    assertEquals(0, m.getTableHits());
+    assertEquals(0, m.getLexiconHits());
+
+    /* the affixes of the six words that ran the rules, decoded back from
+       the dense index into their written codes */
+    assertEquals(map("type000N", 1,    /* rumah */
+                     "type2002", 1,    /* makan-an */
+                     "type3003", 1,    /* mempermain-kan */
+                     "type1001", 1,    /* ahli-ahl-i, before the reduplication */
+                     "type3306", 1,    /* dibagi-kan-nya */
+                     "type0326", 1),   /* rumah-nya-lah */
+                 m.getSuffixCodes());
+    assertEquals(map("type0N", 4, "type48", 1, "type51", 1), m.getPrefixCodes());
+    assertEquals(Collections.singletonMap("drop second half", 1L), m.getReduplications());
+
+    long timed = 0;
+    for (long n : m.getLatencyHistogram())
+      timed += n;
+    assertEquals(7, timed);
+
+    m.reset();
+    assertEquals(0, m.getTokens());
+    assertEquals(0.0, m.getCacheHitRate(), 0);
+    assertEquals(Collections.emptyMap(), m.getSuffixCodes());
+    assertEquals(Collections.emptyMap(), m.getReduplications());
+  }
+
+  @Test
+  public void decodesEverySuffixCodeItCounted() {
+    StemMetrics m = new StemMetrics();
+    Map<String, Long> expected = new TreeMap<String, Long>();
+    for (int kanani = 0; kanani <= AffixCode.WAN; kanani++)
+      for (int kumunya = 0; kumunya <= AffixCode.DASH_NYA; kumunya++)
+        for (int kahlahpun = 0; kahlahpun <= AffixCode.TAH; kahlahpun++)
+          for (int panjang = 0; panjang <= 10; panjang++) {
+            int code = AffixCode.akhiran(kanani, kumunya, kahlahpun, panjang);
+            m.affixes(code, AffixCode.AWALAN_NONE);
+            expected.put(AffixCode.akhiranToString(code), 1L);
+          }
+    m.affixes(AffixCode.akhiran(9, 0, 0, 1), AffixCode.AWALAN_NONE);
+    expected.put("other", 1L);
+    assertEquals(expected, m.getSuffixCodes());
+    assertEquals(map("type0N", expected.size()), m.getPrefixCodes());
+  }
+}
@@ -0,0 +1,185 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class StemProcessorTest
+{
+  /* Runs the workers on the calling thread. */
+  private static final Executor DIRECT = Runnable::run;
+
+  /* Publishes batches "makanan 0", "makanan 1", ... as they are requested. */
+  private static final class Source implements Flow.Publisher<List<String>>, Flow.Subscription
+  {
+    final int total;
+    Flow.Subscriber<? super List<String>> out;
+    long requested, sent;
+    boolean emitting, cancelled;
+
+    Source(int total) {
+      this.total = total;
+    }
+
+    public void subscribe(Flow.Subscriber<? super List<String>> s) {
+      out = s;
+      s.onSubscribe(this);
+    }
+
+    public synchronized void request(long n) {
+      requested += n;
+      if (emitting)
+        return;
+      emitting = true;
+      while (!cancelled && sent < requested && sent < total)
+        out.onNext(Collections.singletonList("makanan " + sent++));
+      emitting = false;
+    }
+
+    public void cancel() {
+      cancelled = true;
+    }
+  }
+
+  /* Records what it gets and asks for nothing by itself. */
+  private static final class Sink implements Flow.Subscriber<List<String>>
+  {
+    final List<String> items = Collections.synchronizedList(new ArrayList<String>());
+    volatile Flow.Subscription subscription;
+    volatile Throwable error;
+    volatile boolean complete;
+    final CountDownLatch done = new CountDownLatch(1);
+
+    public void onSubscribe(Flow.Subscription s) { subscription = s; }
+    public void onNext(List<String> batch) { items.addAll(batch); }
+    public void onError(Throwable t) { error = t; done.countDown(); }
+    public void onComplete() { complete = true; done.countDown(); }
+  }
+
+  @Test
+  public void slowSubscriberHoldsBackUpstream() {
+    Source source = new Source(1000);
+    StemProcessor p = new StemProcessor(DIRECT, 1, 4);
+    source.subscribe(p);
+    Sink sink = new Sink();
+    p.subscribe(sink);
+    assertEquals(4, source.requested);
+    assertTrue(sink.items.isEmpty());
+    for (int n = 1; n <= 10; n++) {
+      sink.subscription.request(1);
+      assertEquals(n, sink.items.size());
+      assertTrue(source.requested <= p.getCapacity() + sink.items.size());
+    }
+    assertEquals("makan 0", sink.items.get(0));
+    assertEquals("makan 9", sink.items.get(9));
+  }
+
+  @Test
+  public void batchesFinishingOutOfOrderArePublishedInOrder() throws Exception {
+    final CountDownLatch entered = new CountDownLatch(1), release = new CountDownLatch(1);
+    /* a first batch whose text is only handed over on release */
+    List<String> slow = new AbstractList<String>() {
+      public int size() { return 1; }
+      public String get(int z) {
+        entered.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new IllegalStateException(e);
+        }
+        return "dimakan";
+      }
+    };
+    final List<Runnable> tasks = new ArrayList<Runnable>();
+    StemProcessor p = new StemProcessor(tasks::add, 2, 4);
+    Source source = new Source(0);
+    source.subscribe(p);
+    Sink sink = new Sink();
+    p.subscribe(sink);
+    sink.subscription.request(10);
+    p.onNext(slow);
+    p.onNext(Arrays.asList("minuman"));
+    p.onComplete();
+    assertEquals(2, tasks.size());
+
+    Thread first = new Thread(tasks.get(0));
+    first.start();
+    assertTrue(entered.await(10, TimeUnit.SECONDS));
+    tasks.get(1).run();  /* stems the second batch while the first waits */
+    assertTrue(sink.items.isEmpty());
+    release.countDown();
+    first.join();
+    assertTrue(sink.done.await(10, TimeUnit.SECONDS));
+    assertEquals(Arrays.asList("makan", "minum"), sink.items);
+    assertTrue(sink.complete);
+  }
+
+  @Test
+  public void upstreamErrorFollowsThePendingBatches() {
+    StemProcessor p = new StemProcessor(DIRECT, 1, 4);
+    Source source = new Source(3);
+    source.subscribe(p);
+    Sink sink = new Sink();
+    p.subscribe(sink);
+    assertEquals(3, source.sent);
+    RuntimeException boom = new RuntimeException("boom");
+    p.onError(boom);
+    assertNull(sink.error);
+    sink.subscription.request(2);
+    assertEquals(Arrays.asList("makan 0", "makan 1"), sink.items);
+    assertNull(sink.error);
+    sink.subscription.request(2);
+    assertEquals(Arrays.asList("makan 0", "makan 1", "makan 2"), sink.items);
+    assertSame(boom, sink.error);
+    assertFalse(sink.complete);
+  }
+
+  @Test
+  public void cancelStopsUpstream() {
+    StemProcessor p = new StemProcessor(DIRECT, 1, 4);
+    Source source = new Source(1000);
+    source.subscribe(p);
+    Sink sink = new Sink();
+    p.subscribe(sink);
+    sink.subscription.request(2);
+    sink.subscription.cancel();
+    assertTrue(source.cancelled);
+    long sent = source.sent;
+    sink.subscription.request(10);
+    assertEquals(sent, source.sent);
+    assertEquals(2, sink.items.size());
+    assertNull(sink.error);
+    assertFalse(sink.complete);
+  }
+}
@@ -0,0 +1,117 @@
+package org.apache.lucene.analysis;
+
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StemServerTest
+{
+  private ServerSocketChannel channel;
+  private Thread acceptor;
+
+  @Before
+  public void start() throws IOException {
+    channel = StemServer.bind(0);
+    final StemServer server = new StemServer();
+    acceptor = new Thread(() -> {
+      try {
+        server.serve(channel);
+      } catch (IOException e) {
+        /* closed by stop() */
+      }
+    });
+    acceptor.start();
+  }
+
+  @After
+  public void stop() throws Exception {
+    channel.close();
+    acceptor.join();
+  }
+
+  private Socket connect() throws IOException {
+    Socket s = new Socket();
+    s.connect(channel.getLocalAddress());
+    s.setSoTimeout(10000);
+    return s;
+  }
+
+  @Test
+  public void answersEachLineInOrder() throws IOException {
+    try (Socket s = connect()) {
+      OutputStream out = s.getOutputStream();
+      out.write("mempermainkan\r\nahli-ahli bahasa\n\nberabad-abad".getBytes(StandardCharsets.UTF_8));
+      s.shutdownOutput();
+      BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+      assertEquals(Arrays.asList("main", "ahli bahasa", "", "abad"),
+                   Arrays.asList(in.readLine(), in.readLine(), in.readLine(), in.readLine()));
+      assertNull(in.readLine());
+    }
+  }
+
+  @Test
+  public void dropsAClientWhoseLineIsTooLong() throws IOException {
+    try (Socket s = connect()) {
+      OutputStream out = s.getOutputStream();
+      byte[] a = new byte[1 << 16];
+      Arrays.fill(a, (byte) 'a');
+      try {
+        for (int n = 0; n <= StemServer.MAX_LINE; n += a.length)
+          out.write(a);
+      } catch (IOException e) {
+        /* the server hung up while we were still writing */
+      }
+      /* closed without an answer; unread input makes it a reset */
+      try {
+        assertEquals(-1, s.getInputStream().read());
+      } catch (SocketException e) {
+        /* connection reset */
+      }
+    }
+  }
+
+  @Test
+  public void answersWhatItHasBeforeWaitingForTheRestOfALine() throws IOException {
+    try (Socket s = connect()) {
+      OutputStream out = s.getOutputStream();
+      BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+      /* the first line whole, the second only begun */
+      out.write("mempermainkan\nahli-ah".getBytes(StandardCharsets.UTF_8));
+      out.flush();
+      assertEquals("main", in.readLine());
+      out.write("li\n".getBytes(StandardCharsets.UTF_8));
+      out.flush();
+      assertEquals("ahli", in.readLine());
+    }
+  }
+}